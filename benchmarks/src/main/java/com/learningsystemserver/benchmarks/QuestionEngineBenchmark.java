@@ -0,0 +1,42 @@
+package com.learningsystemserver.benchmarks;
+
+import com.learningsystemserver.benchmarks.legacy.LegacyQuestionEngine;
+import com.learningsystemserver.entities.DifficultyLevel;
+import com.learningsystemserver.utils.QuestionEngine;
+import com.learningsystemserver.utils.TopicType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole-question generation (operands, question text, answer and solution steps) for every
+ * topic type × difficulty, i.e. what one pooled or seed-hydrated question costs.
+ * {@link #generateLegacy} is the concatenation/String.format renderer it replaced; compare the
+ * two with {@code -prof gc} (gc.alloc.rate.norm = bytes per question).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class QuestionEngineBenchmark {
+
+    @Param
+    public TopicType topic;
+
+    @Param
+    public DifficultyLevel difficulty;
+
+    private long seed;
+
+    @Benchmark
+    public QuestionEngine.QuestionContent generate() {
+        return QuestionEngine.generate(topic, difficulty, seed++);
+    }
+
+    @Benchmark
+    public QuestionEngine.QuestionContent generateLegacy() {
+        return LegacyQuestionEngine.generate(topic, difficulty, seed++);
+    }
+}
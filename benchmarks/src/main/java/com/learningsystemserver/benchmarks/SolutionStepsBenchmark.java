@@ -0,0 +1,90 @@
+package com.learningsystemserver.benchmarks;
+
+import com.learningsystemserver.entities.DifficultyLevel;
+import com.learningsystemserver.utils.QuestionAlgorithmsFunctions;
+import com.learningsystemserver.utils.TopicType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Solution-step rendering only (QuestionAlgorithmsFunctions.simplify*), on operands drawn the
+ * same way QuestionEngine draws them. Fractions and the geometry topics ignore the difficulty.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SolutionStepsBenchmark {
+
+    private static final int INPUTS = 1024;
+
+    @Param
+    public TopicType topic;
+
+    @Param
+    public DifficultyLevel difficulty;
+
+    private int[][] inputs;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom rng = new SplittableRandom(42);
+        inputs = new int[INPUTS][];
+        for (int i = 0; i < INPUTS; i++) {
+            inputs[i] = operands(rng);
+        }
+    }
+
+    @Benchmark
+    public String render() {
+        int[] in = inputs[next++ & (INPUTS - 1)];
+        return switch (topic) {
+            case ADDITION -> QuestionAlgorithmsFunctions.simplifyAddition(in[0], in[1], in[0] + in[1]);
+            case SUBTRACTION -> QuestionAlgorithmsFunctions.simplifySubtraction(in[0], in[1], in[0] - in[1]);
+            case MULTIPLICATION -> QuestionAlgorithmsFunctions.simplifyMultiplication(in[0], in[1], in[0] * in[1]);
+            case DIVISION -> QuestionAlgorithmsFunctions.simplifyDivision(in[0], in[1], in[0] / in[1]);
+            case FRACTIONS -> QuestionAlgorithmsFunctions.simplifyFractions(in[0], in[1], in[2], in[3],
+                    in[0] * in[3] + in[2] * in[1], in[1] * in[3]);
+            case RECTANGLE -> QuestionAlgorithmsFunctions.simplifyRectangle(in[0], in[1],
+                    in[0] * in[1], 2 * (in[0] + in[1]));
+            case CIRCLE -> QuestionAlgorithmsFunctions.simplifyCircle(in[0],
+                    3.14 * in[0] * in[0], 2 * 3.14 * in[0]);
+            case TRIANGLE -> QuestionAlgorithmsFunctions.simplifyTriangle(in[0], in[1],
+                    0.5 * in[0] * in[1], Math.sqrt(in[0] * in[0] + in[1] * in[1]));
+            case POLYGON -> {
+                double apothem = in[0] / (2 * Math.tan(Math.PI / 5));
+                yield QuestionAlgorithmsFunctions.simplifyPolygon(in[0], apothem, (5 * in[0] * apothem) / 2);
+            }
+        };
+    }
+
+    private int[] operands(SplittableRandom rng) {
+        int max = switch (difficulty) {
+            case BASIC -> 10;
+            case EASY -> 30;
+            case MEDIUM -> 100;
+            case ADVANCED -> 1000;
+            case EXPERT -> 9999;
+        };
+        return switch (topic) {
+            case ADDITION, MULTIPLICATION -> new int[]{rng.nextInt(1, max + 1), rng.nextInt(1, max + 1)};
+            case SUBTRACTION -> {
+                int a = rng.nextInt(1, max + 1);
+                int b = rng.nextInt(1, max + 1);
+                yield new int[]{Math.max(a, b), Math.min(a, b)};
+            }
+            case DIVISION -> {
+                int b = rng.nextInt(1, max + 1);
+                yield new int[]{b * rng.nextInt(1, max + 1), b};
+            }
+            case FRACTIONS -> new int[]{rng.nextInt(1, 10), rng.nextInt(1, 10), rng.nextInt(1, 10), rng.nextInt(1, 10)};
+            case RECTANGLE, TRIANGLE -> new int[]{rng.nextInt(1, 21), rng.nextInt(1, 21)};
+            case CIRCLE, POLYGON -> new int[]{rng.nextInt(1, 11)};
+        };
+    }
+}
@@ -0,0 +1,159 @@
+package com.learningsystemserver.benchmarks;
+
+import com.learningsystemserver.utils.ChunkCoalescer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing one streamed AI answer (~400 Ollama tokens) as SSE chunk events, the way
+ * StreamingOllamaService does: encode the {"t": ...} payload, write the frame, flush.
+ * {@link #perToken} is one frame per token (the old behaviour), {@link #coalesced} runs the
+ * tokens through {@link ChunkCoalescer} first. Frames go to the null device, so each flush is a
+ * real write syscall. ops/s = answers per second, the {@code frames} row is frames/sec.
+ *
+ * Tokens carry synthetic arrival times {@code tokenMicros} apart, so the time bound of the
+ * flush policy behaves as it would against a model producing 1e6/tokenMicros tokens per second.
+ * Every {@link #PAUSE_EVERY} tokens the model pauses for {@code pauseMillis} (a slow step); text
+ * buffered then is flushed at its deadline, as the service's flush timer does.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SseChunkBenchmark {
+
+    private static final int TOKENS_PER_ANSWER = 400;
+    private static final int PAUSE_EVERY = 40;
+
+    @Param({"10000", "40000"})
+    public long tokenMicros;
+
+    @Param({"64"})
+    public int flushChars;
+
+    @Param({"80"})
+    public long flushMillis;
+
+    @Param({"500"})
+    public long pauseMillis;
+
+    private String[] tokens;
+    private long[] arrivals;
+    private OutputStream out;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Frames {
+        public long frames;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            frames = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        tokens = answerTokens(new SplittableRandom(42));
+        arrivals = new long[tokens.length];
+        long now = 0;
+        for (int i = 0; i < tokens.length; i++) {
+            now += tokenMicros * 1_000L;
+            if (i > 0 && i % PAUSE_EVERY == 0) {
+                now += pauseMillis * 1_000_000L;
+            }
+            arrivals[i] = now;
+        }
+        String nullDevice = File.separatorChar == '\\' ? "NUL" : "/dev/null";
+        // Same shape as the servlet response: buffered, flushed after every event
+        out = new BufferedOutputStream(new FileOutputStream(nullDevice), 8192);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        out.close();
+    }
+
+    @Benchmark
+    public void perToken(Frames counters) throws IOException {
+        int seq = 0;
+        for (String token : tokens) {
+            writeFrame(++seq, token, counters);
+        }
+    }
+
+    @Benchmark
+    public void coalesced(Frames counters) throws IOException {
+        ChunkCoalescer coalescer = new ChunkCoalescer(flushChars, flushMillis);
+        int seq = 0;
+        for (int i = 0; i < tokens.length; i++) {
+            long deadline = coalescer.deadline();
+            if (deadline <= arrivals[i]) {
+                // The flush timer fires before this token arrives
+                writeFrame(++seq, coalescer.poll(deadline), counters);
+            }
+            String frame = coalescer.offer(tokens[i], arrivals[i]);
+            if (frame != null) {
+                writeFrame(++seq, frame, counters);
+            }
+        }
+        String rest = coalescer.drain();
+        if (rest != null) {
+            writeFrame(++seq, rest, counters);
+        }
+    }
+
+    // ---- helpers ----
+
+    private void writeFrame(int seq, String text, Frames counters) throws IOException {
+        StringBuilder sb = new StringBuilder(text.length() + 48);
+        sb.append("id:").append(seq).append("\nevent:chunk\ndata:{\"t\":\"");
+        appendJsonEscaped(sb, text);
+        sb.append("\"}\n\n");
+        out.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        counters.frames++;
+    }
+
+    private static void appendJsonEscaped(StringBuilder sb, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                default -> sb.append(c);
+            }
+        }
+    }
+
+    // Word pieces of 1-6 characters with leading spaces and the odd newline, like Ollama emits
+    private static String[] answerTokens(SplittableRandom random) {
+        String alphabet = "abcdefghijklmnopqrstuvwxyz0123456789+=×";
+        List<String> result = new ArrayList<>(TOKENS_PER_ANSWER);
+        for (int i = 0; i < TOKENS_PER_ANSWER; i++) {
+            StringBuilder token = new StringBuilder();
+            int r = random.nextInt(10);
+            if (r < 6) token.append(' ');
+            else if (r == 9) token.append('\n');
+            int len = 1 + random.nextInt(6);
+            for (int j = 0; j < len; j++) {
+                token.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            result.add(token.toString());
+        }
+        return result.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,153 @@
+package com.learningsystemserver.benchmarks.legacy;
+
+import com.learningsystemserver.entities.DifficultyLevel;
+import com.learningsystemserver.utils.QuestionEngine.QuestionContent;
+import com.learningsystemserver.utils.TopicType;
+
+import java.util.SplittableRandom;
+
+/**
+ * QuestionEngine as it was before the StringBuilder rendering (String.format answers, concatenated
+ * text), minus its System.out.println calls so the baseline measures string building only.
+ */
+public final class LegacyQuestionEngine {
+
+    private LegacyQuestionEngine() {}
+
+    public static QuestionContent generate(TopicType type, DifficultyLevel difficulty, long seed) {
+        SplittableRandom rng = new SplittableRandom(seed);
+        return switch (type) {
+            case ADDITION -> createAdditionQuestion(difficulty, rng);
+            case SUBTRACTION -> createSubtractionQuestion(difficulty, rng);
+            case MULTIPLICATION -> createMultiplicationQuestion(difficulty, rng);
+            case DIVISION -> createDivisionQuestion(difficulty, rng);
+            case FRACTIONS -> createFractionsQuestion(rng);
+            case RECTANGLE -> createRectangleQuestion(rng);
+            case CIRCLE -> createCircleQuestion(rng);
+            case TRIANGLE -> createTriangleQuestion(rng);
+            case POLYGON -> createPolygonQuestion(rng);
+        };
+    }
+
+    private static QuestionContent createAdditionQuestion(DifficultyLevel difficulty, SplittableRandom rng) {
+        int[] range = getRangeForDifficulty(difficulty);
+        int a = getRandomNumber(rng, range);
+        int b = getRandomNumber(rng, range);
+        int answer = a + b;
+        String questionText = a + " + " + b + " = ?";
+        String solutionSteps = LegacyQuestionAlgorithmsFunctions.simplifyAddition(a, b, answer);
+        return new QuestionContent(questionText, solutionSteps, String.valueOf(answer));
+    }
+
+    private static QuestionContent createSubtractionQuestion(DifficultyLevel difficulty, SplittableRandom rng) {
+        int[] range = getRangeForDifficulty(difficulty);
+        int a = getRandomNumber(rng, range);
+        int b = getRandomNumber(rng, range);
+        if (a < b) {
+            int temp = a;
+            a = b;
+            b = temp;
+        }
+        int answer = a - b;
+        String questionText = a + " - " + b + " = ?";
+        String solutionSteps = LegacyQuestionAlgorithmsFunctions.simplifySubtraction(a, b, answer);
+        return new QuestionContent(questionText, solutionSteps, String.valueOf(answer));
+    }
+
+    private static QuestionContent createMultiplicationQuestion(DifficultyLevel difficulty, SplittableRandom rng) {
+        int[] range = getRangeForDifficulty(difficulty);
+        int a = getRandomNumber(rng, range);
+        int b = getRandomNumber(rng, range);
+        int answer = a * b;
+        String questionText = a + " × " + b + " = ?";
+        String solutionSteps = LegacyQuestionAlgorithmsFunctions.simplifyMultiplication(a, b, answer);
+        return new QuestionContent(questionText, solutionSteps, String.valueOf(answer));
+    }
+
+    private static QuestionContent createDivisionQuestion(DifficultyLevel difficulty, SplittableRandom rng) {
+        int[] range = getRangeForDifficulty(difficulty);
+        int b;
+        int a;
+        do {
+            b = getRandomNumber(rng, range);
+        } while (b == 0);
+        int multiplier = getRandomNumber(rng, range);
+        a = b * multiplier;
+        int answer = a / b;
+        String questionText = a + " ÷ " + b + " = ?";
+        String solutionSteps = LegacyQuestionAlgorithmsFunctions.simplifyDivision(a, b, answer);
+        return new QuestionContent(questionText, solutionSteps, String.valueOf(answer));
+    }
+
+    private static QuestionContent createFractionsQuestion(SplittableRandom rng) {
+        int num1 = rng.nextInt(9) + 1;
+        int den1 = rng.nextInt(9) + 1;
+        int num2 = rng.nextInt(9) + 1;
+        int den2 = rng.nextInt(9) + 1;
+        int commonDen = den1 * den2;
+        int newNum1 = num1 * den2;
+        int newNum2 = num2 * den1;
+        int sumNum = newNum1 + newNum2;
+        String questionText = "(" + num1 + "/" + den1 + ") + (" + num2 + "/" + den2 + ") = ?";
+        String solutionSteps = LegacyQuestionAlgorithmsFunctions.simplifyFractions(num1, den1, num2, den2, sumNum, commonDen);
+        String correctAnswer = sumNum + "/" + commonDen;
+        return new QuestionContent(questionText, solutionSteps, correctAnswer);
+    }
+
+    private static QuestionContent createRectangleQuestion(SplittableRandom rng) {
+        int length = getRandomNumber(rng, new int[]{1, 20});
+        int width = getRandomNumber(rng, new int[]{1, 20});
+        int area = length * width;
+        int perimeter = 2 * (length + width);
+        String questionText = "Rectangle with length " + length + " and width " + width + ". Find its area and perimeter.";
+        String solutionSteps = LegacyQuestionAlgorithmsFunctions.simplifyRectangle(length, width, area, perimeter);
+        String correctAnswer = "Area: " + area + ", Perimeter: " + perimeter;
+        return new QuestionContent(questionText, solutionSteps, correctAnswer);
+    }
+
+    private static QuestionContent createCircleQuestion(SplittableRandom rng) {
+        int radius = getRandomNumber(rng, new int[]{1, 10});
+        double pi = 3.14;
+        double area = pi * radius * radius;
+        double circumference = 2 * pi * radius;
+        String questionText = "Circle with radius " + radius + ". Find its area and circumference.";
+        String solutionSteps = LegacyQuestionAlgorithmsFunctions.simplifyCircle(radius, area, circumference);
+        String correctAnswer = "Area: " + String.format("%.2f", area) + ", Circumference: " + String.format("%.2f", circumference);
+        return new QuestionContent(questionText, solutionSteps, correctAnswer);
+    }
+
+    private static QuestionContent createTriangleQuestion(SplittableRandom rng) {
+        int base = getRandomNumber(rng, new int[]{1, 20});
+        int height = getRandomNumber(rng, new int[]{1, 20});
+        double area = 0.5 * base * height;
+        double hypotenuse = Math.sqrt(base * base + height * height);
+        String questionText = "Right triangle with base " + base + " and height " + height + ". Find its area and hypotenuse.";
+        String solutionSteps = LegacyQuestionAlgorithmsFunctions.simplifyTriangle(base, height, area, hypotenuse);
+        String correctAnswer = "Area: " + String.format("%.2f", area) + ", Hypotenuse: " + String.format("%.2f", hypotenuse);
+        return new QuestionContent(questionText, solutionSteps, correctAnswer);
+    }
+
+    private static QuestionContent createPolygonQuestion(SplittableRandom rng) {
+        int side = getRandomNumber(rng, new int[]{1, 10});
+        double apothem = side / (2 * Math.tan(Math.PI / 5));
+        double area = (5 * side * apothem) / 2;
+        String questionText = "Regular pentagon with side length " + side + ". Find its approximate area.";
+        String solutionSteps = LegacyQuestionAlgorithmsFunctions.simplifyPolygon(side, apothem, area);
+        String correctAnswer = "Approximate Area: " + String.format("%.2f", area);
+        return new QuestionContent(questionText, solutionSteps, correctAnswer);
+    }
+
+    private static int[] getRangeForDifficulty(DifficultyLevel difficulty) {
+        return switch (difficulty) {
+            case BASIC -> new int[]{1, 10};
+            case EASY -> new int[]{1, 30};
+            case MEDIUM -> new int[]{1, 100};
+            case ADVANCED -> new int[]{1, 1000};
+            case EXPERT -> new int[]{1, 9999};
+        };
+    }
+
+    private static int getRandomNumber(SplittableRandom rng, int[] range) {
+        return rng.nextInt(range[1] - range[0] + 1) + range[0];
+    }
+}
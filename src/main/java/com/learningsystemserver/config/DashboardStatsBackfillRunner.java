@@ -0,0 +1,32 @@
+package com.learningsystemserver.config;
+
+import com.learningsystemserver.services.AdminDashboardRollup;
+import com.learningsystemserver.services.DashboardStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DashboardStatsBackfillRunner implements ApplicationRunner {
+
+    private final DashboardStatsService statsService;
+    private final AdminDashboardRollup adminRollup;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            statsService.backfillIfEmpty();
+        } catch (Exception e) {
+            log.warn("Dashboard stats backfill skipped (non-fatal): {}", e.getMessage());
+        }
+        try {
+            adminRollup.rebuild();
+        } catch (Exception e) {
+            log.warn("Admin dashboard rollup not loaded (will be corrected by reconciliation): {}", e.getMessage());
+        }
+    }
+}
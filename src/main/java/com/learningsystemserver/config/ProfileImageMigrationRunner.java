@@ -0,0 +1,102 @@
+package com.learningsystemserver.config;
+
+import com.learningsystemserver.entities.ProfileImage;
+import com.learningsystemserver.services.ProfileImageService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.List;
+
+/**
+ * Moves pictures from the legacy users.profile_image blob column into profile_images,
+ * a few rows at a time. Each user's image row and pointer update commit together, so it is
+ * safe to re-run after a partial failure. The emptied column is only dropped when
+ * app.profile-images.drop-legacy-column is set.
+ */
+@Slf4j
+@Component
+public class ProfileImageMigrationRunner implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProfileImageService profileImageService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean dropLegacyColumn;
+
+    public ProfileImageMigrationRunner(JdbcTemplate jdbcTemplate,
+                                       ProfileImageService profileImageService,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${app.profile-images.drop-legacy-column:false}") boolean dropLegacyColumn) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.profileImageService = profileImageService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dropLegacyColumn = dropLegacyColumn;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            if (!legacyColumnExists()) {
+                return;
+            }
+            int migrated = 0;
+            List<LegacyImage> batch;
+            while (!(batch = nextBatch()).isEmpty()) {
+                for (LegacyImage legacy : batch) {
+                    if (legacy.data().length == 0) {
+                        jdbcTemplate.update("UPDATE users SET profile_image = NULL WHERE id = ?", legacy.userId());
+                        continue;
+                    }
+                    // A crash between the two statements must not leave an orphan to be duplicated on restart
+                    transactionTemplate.executeWithoutResult(status -> {
+                        ProfileImage image = profileImageService.create(legacy.userId(), legacy.data());
+                        jdbcTemplate.update(
+                                "UPDATE users SET profile_image_id = ?, profile_image_hash = ?, profile_image = NULL WHERE id = ?",
+                                image.getId(), image.getSha256(), legacy.userId());
+                    });
+                }
+                migrated += batch.size();
+            }
+            if (migrated > 0) {
+                log.info("Moved {} profile images out of users.profile_image.", migrated);
+            }
+            if (dropLegacyColumn) {
+                jdbcTemplate.execute("ALTER TABLE users DROP COLUMN profile_image");
+                log.info("Dropped the legacy users.profile_image column.");
+            }
+        } catch (Exception e) {
+            log.warn("Profile image migration incomplete (will resume on next start): {}", e.getMessage());
+        }
+    }
+
+    private List<LegacyImage> nextBatch() {
+        return jdbcTemplate.query(
+                "SELECT id, profile_image FROM users WHERE profile_image IS NOT NULL ORDER BY id LIMIT " + BATCH_SIZE,
+                (rs, rowNum) -> new LegacyImage(rs.getLong("id"), rs.getBytes("profile_image")));
+    }
+
+    private boolean legacyColumnExists() {
+        Boolean exists = jdbcTemplate.execute((ConnectionCallback<Boolean>) c -> {
+            DatabaseMetaData md = c.getMetaData();
+            for (String[] names : new String[][]{{"users", "profile_image"}, {"USERS", "PROFILE_IMAGE"}}) {
+                try (ResultSet rs = md.getColumns(c.getCatalog(), null, names[0], names[1])) {
+                    if (rs.next()) return true;
+                }
+            }
+            return false;
+        });
+        return Boolean.TRUE.equals(exists);
+    }
+
+    private record LegacyImage(long userId, byte[] data) {}
+}
@@ -2,12 +2,19 @@ package com.learningsystemserver.controllers;
 
 import com.learningsystemserver.entities.User;
 import com.learningsystemserver.repositories.UserRepository;
+import com.learningsystemserver.services.OllamaAdmissionQueue;
 import com.learningsystemserver.services.StreamingOllamaService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.concurrent.RejectedExecutionException;
+
 @RestController
 @RequestMapping("/api/ai")
 public class AiSolutionController {
@@ -15,21 +22,34 @@ public class AiSolutionController {
     private final StreamingOllamaService blockingService;
     private final UserRepository userRepository;
 
-    public AiSolutionController(StreamingOllamaService svc, UserRepository userRepository) {
+    private final OllamaAdmissionQueue admissionQueue;
+
+    public AiSolutionController(StreamingOllamaService svc, UserRepository userRepository,
+                                OllamaAdmissionQueue admissionQueue) {
         this.blockingService = svc;
         this.userRepository = userRepository;
+        this.admissionQueue = admissionQueue;
     }
 
+    /**
+     * Streams {@code queue} position events while waiting for a generation slot, then the
+     * answer chunks. 429 with Retry-After when the generation queue is full. Fair queueing is
+     * per user, so unauthenticated callers (who would all share one bucket) get 401.
+     */
     @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter streamAiSolution(
+    public ResponseEntity<SseEmitter> streamAiSolution(
             @RequestParam("question") String questionText,
             @RequestParam(value = "lang", required = false) String lang,
             Authentication authentication
     ) {
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        String username = authentication.getName();
         String effectiveLang = normalizeLang(lang);
 
-        if (effectiveLang == null && authentication != null) {
-            String username = authentication.getName();
+        if (effectiveLang == null) {
             User u = userRepository.findByUsername(username).orElse(null);
             if (u != null) {
                 effectiveLang = normalizeLang(u.getInterfaceLanguage());
@@ -39,7 +59,13 @@ public class AiSolutionController {
             effectiveLang = "he";
         }
 
-        return blockingService.streamSolution(questionText, effectiveLang);
+        try {
+            return ResponseEntity.ok(blockingService.streamSolution(username, questionText, effectiveLang));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(admissionQueue.getRetryAfterSeconds()))
+                    .build();
+        }
     }
 
     private String normalizeLang(String v) {
@@ -11,6 +11,7 @@ import com.learningsystemserver.exceptions.ErrorMessages;
 import com.learningsystemserver.exceptions.InvalidInputException;
 import com.learningsystemserver.repositories.UserRepository;
 import com.learningsystemserver.services.JwtService;
+import com.learningsystemserver.services.UserDetailsServiceImpl;
 import com.learningsystemserver.services.UserProgressService;
 import com.learningsystemserver.utils.CookieUtils;
 import lombok.Data;
@@ -22,7 +23,6 @@ import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
@@ -36,7 +36,7 @@ import java.util.regex.Pattern;
 public class AuthController {
 
     private final AuthenticationManager authenticationManager;
-    private final UserDetailsService userDetailsService;
+    private final UserDetailsServiceImpl userDetailsService;
     private final JwtService jwtService;
 
     private final UserRepository userRepository;
@@ -53,7 +53,7 @@ public class AuthController {
 
     public AuthController(
             AuthenticationManager am,
-            UserDetailsService uds,
+            UserDetailsServiceImpl uds,
             JwtService jwtService,
             UserRepository userRepository,
             PasswordEncoder passwordEncoder, UserProgressService userProgressService
@@ -130,6 +130,7 @@ public class AuthController {
 
             var user = userOpt.get();
 
+            Role previousRole = user.getRole();
             if (req.isAdmin()) {
                 user.setRole(Role.ADMIN);
             } else {
@@ -142,6 +143,9 @@ public class AuthController {
                 }
             }
             userRepository.save(user);
+            if (previousRole != user.getRole()) {
+                userDetailsService.evict(user.getUsername(), user.getEmail());
+            }
 
             authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(user.getUsername(), req.getPassword())
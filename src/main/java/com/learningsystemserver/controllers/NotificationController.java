@@ -1,15 +1,19 @@
 package com.learningsystemserver.controllers;
 
+import com.learningsystemserver.dtos.requests.MarkReadRequest;
 import com.learningsystemserver.entities.Notification;
 import com.learningsystemserver.services.NotificationService;
-import com.learningsystemserver.services.SseEmitterService;
+import com.learningsystemserver.services.SseChannel;
+import com.learningsystemserver.services.SseHub;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/notifications")
@@ -17,30 +21,52 @@ import java.util.List;
 public class NotificationController {
 
     private final NotificationService notificationService;
-    private final SseEmitterService sseEmitterService;
+    private final SseHub sseHub;
 
     @GetMapping("/stream")
-    public SseEmitter streamNotifications() {
+    public SseEmitter streamNotifications(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        SseEmitter emitter = new SseEmitter(0L);
-        sseEmitterService.addEmitter(username, emitter);
-        emitter.onCompletion(() -> sseEmitterService.removeEmitter(username, emitter));
-        emitter.onTimeout(() -> sseEmitterService.removeEmitter(username, emitter));
+        SseEmitter emitter = sseHub.connect(username, EnumSet.of(SseChannel.NOTIFICATIONS));
+        notificationService.resume(username, emitter, lastEventId);
         return emitter;
     }
 
+    /** Newest first; pass the last id of a page as {@code before} to fetch the next one. */
     @GetMapping
-    public List<Notification> getNotifications() {
+    public List<Notification> getNotifications(@RequestParam(required = false) Long before,
+                                               @RequestParam(defaultValue = "50") int limit) {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        return notificationService.getAllNotifications(username);
+        return notificationService.getNotifications(username, before, limit);
+    }
+
+    @GetMapping("/unread-count")
+    public Map<String, Long> getUnreadCount() {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        return Map.of("unread", notificationService.getUnreadCount(username));
     }
 
     @PostMapping("/markRead/{id}")
     public ResponseEntity<String> markAsRead(@PathVariable Long id) {
-        notificationService.markNotificationAsRead(id);
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        notificationService.markAsRead(username, List.of(id));
         return ResponseEntity.ok("Marked as read");
     }
 
+    /** Marks the listed notifications as read with one UPDATE; an empty selection changes nothing. */
+    @PostMapping("/markRead")
+    public Map<String, Integer> markManyAsRead(@RequestBody(required = false) MarkReadRequest request) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        List<Long> ids = request != null ? request.getIds() : null;
+        return Map.of("updated", notificationService.markAsRead(username, ids));
+    }
+
+    /** Marks every unread notification of the caller as read with one UPDATE. */
+    @PostMapping("/markAllRead")
+    public Map<String, Integer> markAllAsRead() {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        return Map.of("updated", notificationService.markAllAsRead(username));
+    }
+
     @DeleteMapping("/clearAll")
     public ResponseEntity<Void> clearAllForCurrentUser() {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
@@ -3,12 +3,23 @@ package com.learningsystemserver.controllers;
 import com.learningsystemserver.entities.User;
 import com.learningsystemserver.exceptions.AlreadyInUseException;
 import com.learningsystemserver.exceptions.InvalidInputException;
+import com.learningsystemserver.repositories.ProfileImageRepository;
 import com.learningsystemserver.repositories.UserRepository;
 import com.learningsystemserver.dtos.requests.UpdateProfileRequest;
 import com.learningsystemserver.dtos.responses.ProfileResponse;
 import com.learningsystemserver.services.JwtService;
+import com.learningsystemserver.services.ProfileImageProcessor;
+import com.learningsystemserver.services.ProfileImageService;
+import com.learningsystemserver.services.UserDetailsServiceImpl;
+import com.learningsystemserver.services.UserPrincipal;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -16,8 +27,12 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.util.Base64;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
+@Slf4j
 @RestController
 @RequestMapping("/api/profile")
 @RequiredArgsConstructor
@@ -26,6 +41,9 @@ public class ProfileController {
     private final UserRepository userRepository;
     private final JwtService jwtService;
     private final PasswordEncoder passwordEncoder;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final ProfileImageService profileImageService;
+    private final ProfileImageProcessor imageProcessor;
 
     @GetMapping
     public ProfileResponse getProfile() throws InvalidInputException {
@@ -33,16 +51,11 @@ public class ProfileController {
         User user = userRepository.findByUsername(principalName)
                 .orElseThrow(() -> new InvalidInputException("No user with username: " + principalName));
 
-        String base64Image = null;
-        if (user.getProfileImage() != null && user.getProfileImage().length > 0) {
-            base64Image = Base64.getEncoder().encodeToString(user.getProfileImage());
-        }
-
         return ProfileResponse.builder()
                 .username(user.getUsername())
                 .email(user.getEmail())
                 .interfaceLanguage(user.getInterfaceLanguage())
-                .profileImage(base64Image)
+                .profileImageUrl(ProfileImageService.urlFor(user))
                 .subDifficultyLevel(user.getSubDifficultyLevel())
                 .currentDifficulty(
                         user.getOverallProgressLevel() != null ? user.getOverallProgressLevel().name() : "BASIC"
@@ -80,17 +93,13 @@ public class ProfileController {
         }
 
         userRepository.save(user);
-
-        String base64Image = null;
-        if (user.getProfileImage() != null && user.getProfileImage().length > 0) {
-            base64Image = Base64.getEncoder().encodeToString(user.getProfileImage());
-        }
+        userDetailsService.evict(principalName, user.getUsername(), user.getEmail());
 
         ProfileResponse.ProfileResponseBuilder builder = ProfileResponse.builder()
                 .username(user.getUsername())
                 .email(user.getEmail())
                 .interfaceLanguage(user.getInterfaceLanguage())
-                .profileImage(base64Image);
+                .profileImageUrl(ProfileImageService.urlFor(user));
 
         if (usernameChanged) {
             String newToken = jwtService.generateToken(user.getUsername());
@@ -100,18 +109,42 @@ public class ProfileController {
         return builder.build();
     }
 
+    /**
+     * Decoding and thumbnailing run on the bounded image pool, not on the request thread.
+     * 400 for anything that isn't a readable image, 503 when the pool is saturated.
+     */
     @PostMapping("/uploadImage")
-    public ResponseEntity<String> uploadImage(@RequestParam("image") MultipartFile image) throws InvalidInputException {
+    public CompletableFuture<ResponseEntity<String>> uploadImage(@RequestParam("image") MultipartFile image) throws InvalidInputException {
         String principalName = SecurityContextHolder.getContext().getAuthentication().getName();
         User user = userRepository.findByUsername(principalName)
                 .orElseThrow(() -> new InvalidInputException("No user with username: " + principalName));
+
+        final byte[] bytes;
         try {
-            user.setProfileImage(image.getBytes());
-            userRepository.save(user);
-            return ResponseEntity.ok("Image uploaded successfully");
+            bytes = image.getBytes();
         } catch (IOException e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Failed to upload image");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Failed to upload image"));
+        }
+
+        try {
+            return imageProcessor.process(bytes)
+                    .thenApply(processed -> {
+                        profileImageService.replace(user, processed);
+                        return ResponseEntity.ok("Image uploaded successfully");
+                    })
+                    .exceptionally(e -> {
+                        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        if (cause instanceof InvalidInputException) {
+                            return ResponseEntity.badRequest().body(cause.getMessage());
+                        }
+                        log.warn("Profile image upload failed for {}: {}", principalName, cause.getMessage());
+                        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to upload image");
+                    });
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "2")
+                    .body("Image processing is busy, please try again."));
         }
     }
 
@@ -121,11 +154,55 @@ public class ProfileController {
         User user = userRepository.findByUsername(principalName)
                 .orElseThrow(() -> new InvalidInputException("No user with username: " + principalName));
 
-        user.setProfileImage(null);
-        userRepository.save(user);
+        profileImageService.remove(user);
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Image bytes by id; {@code size} selects a thumbnail (the smallest one at least that wide).
+     * Ids are never reused (each upload gets a new one), so responses are cacheable forever;
+     * conditional requests are answered from the hash without loading the blob, and Range
+     * requests are handled by Spring for the Resource body.
+     */
+    @GetMapping("/image/{id}")
+    public ResponseEntity<Resource> getImage(@PathVariable Long id,
+                                             @RequestParam(value = "size", required = false) Integer size,
+                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        UserPrincipal principal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        ProfileImageRepository.Meta meta = profileImageService.findMeta(id, size)
+                .filter(m -> m.getOwnerId().equals(principal.getId()))
+                .orElse(null);
+        if (meta == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        CacheControl cacheControl = CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable();
+        if (etagMatches(ifNoneMatch, meta.getSha256())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(meta.getSha256())
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+        return profileImageService.findData(meta.getId())
+                .<ResponseEntity<Resource>>map(data -> ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType(meta.getContentType()))
+                        .eTag(meta.getSha256())
+                        .cacheControl(cacheControl)
+                        .body(new ByteArrayResource(data)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private static boolean etagMatches(String ifNoneMatch, String hash) {
+        if (ifNoneMatch == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) return true;
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals("\"" + hash + "\"")) return true;
+        }
+        return false;
+    }
+
     @PostMapping("/image/delete")
     public ResponseEntity<Void> deleteImageAlias() throws InvalidInputException {
         return deleteImage();
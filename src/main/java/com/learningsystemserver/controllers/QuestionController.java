@@ -10,6 +10,8 @@ import com.learningsystemserver.repositories.UserQuestionHistoryRepository;
 import com.learningsystemserver.repositories.UserRepository;
 import com.learningsystemserver.repositories.UserSubtopicProgressRepository;
 import com.learningsystemserver.services.QuestionGeneratorService;
+import com.learningsystemserver.services.QuestionPool;
+import com.learningsystemserver.services.QuestionTokenService;
 import com.learningsystemserver.services.UserHistoryService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -20,6 +22,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
 
 import static com.learningsystemserver.exceptions.ErrorMessages.USERNAME_DOES_NOT_EXIST;
 
@@ -31,6 +34,8 @@ public class QuestionController {
     private static final Logger log = LoggerFactory.getLogger(QuestionController.class);
 
     private final QuestionGeneratorService questionService;
+    private final QuestionPool questionPool;
+    private final QuestionTokenService questionTokens;
     private final UserHistoryService userHistoryService;
     private final UserRepository userRepository;
     private final UserQuestionHistoryRepository historyRepository;
@@ -49,7 +54,14 @@ public class QuestionController {
                         ? (user.getOverallProgressLevel() != null ? user.getOverallProgressLevel() : DifficultyLevel.BASIC)
                         : resolveNextDifficultyForSubtopic(user.getId(), topicId);
 
-        GeneratedQuestion q = questionService.generateQuestion(topicId, effectiveLevel);
+        if (questionTokens.isEnabled()) {
+            // Stateless mode: nothing is persisted until the answer is submitted
+            long seed = ThreadLocalRandom.current().nextLong();
+            GeneratedQuestion q = questionService.buildFromSeed(topicId, effectiveLevel, seed);
+            return toResponse(q, questionTokens.issue(topicId, effectiveLevel, seed));
+        }
+
+        GeneratedQuestion q = questionPool.take(topicId, effectiveLevel);
         return toResponse(q);
     }
 
@@ -64,7 +76,7 @@ public class QuestionController {
                         String.format(USERNAME_DOES_NOT_EXIST.getMessage(), principalName)
                 ));
 
-        GeneratedQuestion q = questionService.getQuestionById(request.getQuestionId());
+        GeneratedQuestion q = resolveSubmittedQuestion(request);
 
         boolean isCorrect;
         String topicName = (q.getTopic() != null && q.getTopic().getName() != null)
@@ -96,6 +108,16 @@ public class QuestionController {
         return toResponse(q);
     }
 
+    private GeneratedQuestion resolveSubmittedQuestion(SubmitAnswerRequest request) throws InvalidInputException {
+        if (request.getQuestionId() == null && request.getQuestionToken() != null) {
+            // Re-derive the question from its signed token (once only), then persist it for the attempt history
+            QuestionTokenService.QuestionClaims claims = questionTokens.redeem(request.getQuestionToken());
+            GeneratedQuestion q = questionService.buildFromSeed(claims.topicId(), claims.difficulty(), claims.seed());
+            return questionService.persist(q);
+        }
+        return questionService.getQuestionById(request.getQuestionId());
+    }
+
     // ----------------- Adaptive difficulty (recent-window + streak hysteresis) -----------------
 
     private DifficultyLevel resolveNextDifficultyForSubtopic(Long userId, Long subtopicId) {
@@ -161,13 +183,18 @@ public class QuestionController {
     }
 
     private QuestionResponse toResponse(GeneratedQuestion q) {
+        return toResponse(q, null);
+    }
+
+    private QuestionResponse toResponse(GeneratedQuestion q, String questionToken) {
         return new QuestionResponse(
                 q.getId(),
                 q.getQuestionText(),
                 q.getSolutionSteps(),
                 q.getCorrectAnswer(),
                 (q.getTopic() != null) ? q.getTopic().getId() : null,
-                (q.getDifficultyLevel() != null) ? q.getDifficultyLevel().name() : null
+                (q.getDifficultyLevel() != null) ? q.getDifficultyLevel().name() : null,
+                questionToken
         );
     }
 }
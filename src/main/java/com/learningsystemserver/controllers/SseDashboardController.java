@@ -1,33 +1,28 @@
 package com.learningsystemserver.controllers;
 
-import com.learningsystemserver.dtos.responses.AdminDashboardResponse;
-import com.learningsystemserver.dtos.responses.UserDashboardResponse;
 import com.learningsystemserver.entities.Role;
 import com.learningsystemserver.entities.User;
 import com.learningsystemserver.exceptions.InvalidInputException;
 import com.learningsystemserver.repositories.UserRepository;
 import com.learningsystemserver.services.DashboardService;
+import com.learningsystemserver.services.NotificationService;
+import com.learningsystemserver.services.SseChannel;
+import com.learningsystemserver.services.SseHub;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
-import org.apache.catalina.connector.ClientAbortException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
-import org.springframework.web.context.request.async.AsyncRequestNotUsableException;
 
-import java.io.IOException;
-import java.util.Map;
-import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.EnumSet;
+import java.util.Set;
 
-@Slf4j
 @RestController
 @RequestMapping("/api/sse")
 @RequiredArgsConstructor
@@ -35,160 +30,69 @@ public class SseDashboardController {
 
     private final DashboardService dashboardService;
     private final UserRepository userRepository;
-
-    private static final Map<Long, SseEmitter> userEmitters  = new ConcurrentHashMap<>();
-    private static final Map<Long, SseEmitter> adminEmitters = new ConcurrentHashMap<>();
-
-    // Single executor for all SSE pushes to avoid doing I/O on controller threads.
-    private static final ExecutorService SSE_PUSH_EXEC = Executors.newCachedThreadPool(r -> {
-        Thread t = new Thread(r, "sse-push");
-        t.setDaemon(true);
-        return t;
-    });
-
-    @GetMapping(value = "/user-dashboard", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter connectUser(Authentication auth) throws InvalidInputException {
-        if (auth == null || !auth.isAuthenticated()) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+    private final SseHub sseHub;
+    private final NotificationService notificationService;
+
+    /**
+     * One multiplexed stream per browser tab, e.g. {@code ?channels=notifications,userDashboard}.
+     * Dashboard channels start with a snapshot; adminDashboard requires the ADMIN role.
+     * Notification events carry ids, so Last-Event-ID resumes them after a reconnect.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(defaultValue = "notifications,userDashboard") String channels,
+                             @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                             Authentication auth) throws InvalidInputException {
+        Set<SseChannel> requested;
+        try {
+            requested = SseChannel.parse(channels);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
-        String username = auth.getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new InvalidInputException("No user found for " + username));
-        Long userId = user.getId();
-
-        // 0L = no timeout (let the client/server infra decide)
-        SseEmitter emitter = new SseEmitter(0L);
-        registerLifecycle(userEmitters, userId, emitter);
-
-        // Send initial snapshot asynchronously
-        SSE_PUSH_EXEC.execute(() -> {
-            try {
-                UserDashboardResponse data = dashboardService.buildUserDashboard(username);
-                emitter.send(SseEmitter.event().name("userDashboard").data(data));
-            } catch (Exception e) {
-                handleEmitterFailure(userEmitters, userId, emitter, "userDashboard", e);
-            }
-        });
-
-        return emitter;
-    }
-
-    @GetMapping(value = "/admin-dashboard", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter connectAdmin(Authentication auth) {
-        if (auth == null || !auth.isAuthenticated()) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        if (requested.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No SSE channel requested");
         }
-        String username = auth.getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED));
-        if (user.getRole() == null || user.getRole() != Role.ADMIN) {
-            throw new ResponseStatusException(HttpStatus.FORBIDDEN);
+        SseEmitter emitter = open(auth, requested);
+        if (requested.contains(SseChannel.NOTIFICATIONS)) {
+            notificationService.resume(auth.getName(), emitter, lastEventId);
         }
-        Long userId = user.getId();
-
-        SseEmitter emitter = new SseEmitter(0L);
-        registerLifecycle(adminEmitters, userId, emitter);
-
-        // Send initial snapshot asynchronously
-        SSE_PUSH_EXEC.execute(() -> {
-            try {
-                AdminDashboardResponse data = dashboardService.buildAdminDashboard();
-                emitter.send(SseEmitter.event().name("adminDashboard").data(data));
-            } catch (Exception e) {
-                handleEmitterFailure(adminEmitters, userId, emitter, "adminDashboard", e);
-            }
-        });
-
         return emitter;
     }
 
-    /** Called by services (e.g., history/progress services) to push an updated user dashboard. */
-    public static void pushUserDash(Long userId, UserDashboardResponse data) {
-        safeSend(userEmitters, userId, "userDashboard", data);
+    @GetMapping(value = "/user-dashboard", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter connectUser(Authentication auth) throws InvalidInputException {
+        return open(auth, EnumSet.of(SseChannel.USER_DASHBOARD));
     }
 
-    /** Called by services to push updated admin dashboard (for ADMIN users). */
-    public static void pushAdminDash(Long userId, AdminDashboardResponse data) {
-        safeSend(adminEmitters, userId, "adminDashboard", data);
+    @GetMapping(value = "/admin-dashboard", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter connectAdmin(Authentication auth) throws InvalidInputException {
+        return open(auth, EnumSet.of(SseChannel.ADMIN_DASHBOARD));
     }
 
     // ---- internals ----
 
-    private static void registerLifecycle(Map<Long, SseEmitter> map, Long userId, SseEmitter emitter) {
-        map.put(userId, emitter);
-        emitter.onCompletion(() -> map.remove(userId));
-        emitter.onTimeout(() -> {
-            try { emitter.complete(); } catch (Exception ignore) {}
-            map.remove(userId);
-        });
-        emitter.onError(ex -> {
-            // Treat client aborts as normal disconnects, remove so we won't try again.
-            handleEmitterFailure(map, userId, emitter, "lifecycle", ex);
-        });
-    }
-
-    private static void safeSend(Map<Long, SseEmitter> map, Long userId, String eventName, Object payload) {
-        final SseEmitter emitter = map.get(userId);
-        if (emitter == null) return;
-
-        // Do not send on the calling (controller/transaction) thread.
-        SSE_PUSH_EXEC.execute(() -> {
-            try {
-                emitter.send(SseEmitter.event().name(eventName).data(payload));
-            } catch (Exception e) {
-                handleEmitterFailure(map, userId, emitter, eventName, e);
-            }
-        });
-    }
-
-    private static void handleEmitterFailure(Map<Long, SseEmitter> map,
-                                             Long userId,
-                                             SseEmitter emitter,
-                                             String eventName,
-                                             Throwable e) {
-        if (isClientAbort(e)) {
-            // Quiet for expected disconnects
-            log.debug("SSE disconnected (event={}): userId={}, cause={}", eventName, userId, rootMessage(e));
-        } else {
-            // Unexpected write problem
-            log.warn("SSE push failed (event={}): userId={}, cause={}", eventName, userId, rootMessage(e));
+    private SseEmitter open(Authentication auth, Set<SseChannel> channels) throws InvalidInputException {
+        if (auth == null || !auth.isAuthenticated()) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
         }
-        try { emitter.complete(); } catch (Exception ignore) {}
-        map.remove(userId);
-    }
-
-    private static boolean isClientAbort(Throwable e) {
-        // unwrap
-        Throwable t = e;
-        while (t != null) {
-            if (t instanceof ClientAbortException) return true;
-            if (t instanceof AsyncRequestNotUsableException) return true;
-            if (t instanceof IOException) {
-                String msg = t.getMessage();
-                if (msg != null) {
-                    String m = msg.toLowerCase();
-                    if (m.contains("broken pipe") ||
-                            m.contains("connection reset") ||
-                            m.contains("aborted by the software") ||
-                            m.contains("async not usable") ||
-                            m.contains("pipe is being closed")) {
-                        return true;
-                    }
-                }
+        String username = auth.getName();
+        if (channels.contains(SseChannel.ADMIN_DASHBOARD)) {
+            User user = userRepository.findByUsername(username)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED));
+            if (user.getRole() == null || user.getRole() != Role.ADMIN) {
+                throw new ResponseStatusException(HttpStatus.FORBIDDEN);
             }
-            t = t.getCause();
         }
-        return false;
-    }
 
-    private static String rootMessage(Throwable e) {
-        Throwable t = e;
-        Throwable last = e;
-        while (t != null) {
-            last = t;
-            t = t.getCause();
-        }
-        assert last != null;
-        return Objects.toString(last.getMessage(), last.getClass().getSimpleName());
+        // Build snapshots before registering so a failure leaves no half-open connection
+        Object userDash = channels.contains(SseChannel.USER_DASHBOARD)
+                ? dashboardService.buildUserDashboard(username) : null;
+        Object adminDash = channels.contains(SseChannel.ADMIN_DASHBOARD)
+                ? dashboardService.buildAdminDashboard() : null;
+
+        SseEmitter emitter = sseHub.connect(username, channels);
+        // Initial snapshots go through the connection's push lane like every later update
+        if (userDash != null) sseHub.send(emitter, SseChannel.USER_DASHBOARD, userDash);
+        if (adminDash != null) sseHub.send(emitter, SseChannel.ADMIN_DASHBOARD, adminDash);
+        return emitter;
     }
 }
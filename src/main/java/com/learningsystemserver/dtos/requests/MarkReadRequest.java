@@ -0,0 +1,11 @@
+package com.learningsystemserver.dtos.requests;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class MarkReadRequest {
+    // Notifications to mark as read; null or empty changes nothing (use /markAllRead for all)
+    private List<Long> ids;
+}
@@ -5,6 +5,7 @@ import lombok.Data;
 @Data
 public class SubmitAnswerRequest {
     private Long questionId;
+    private String questionToken;
     private String userAnswer;
     private Long userId;
     private Long timeTakenSeconds;
@@ -10,7 +10,7 @@ public class ProfileResponse {
     private String email;
     private String interfaceLanguage;
     private String solutionDetailLevel;
-    private String profileImage;
+    private String profileImageUrl;
     private Integer subDifficultyLevel;
     private String currentDifficulty;
     private String newToken;
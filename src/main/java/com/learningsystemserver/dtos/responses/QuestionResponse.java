@@ -12,4 +12,6 @@ public class QuestionResponse {
     private String correctAnswer;
     private Long topicId;
     private String difficultyLevel;
+    // Set instead of id in stateless question mode; send it back on submit
+    private String questionToken;
 }
@@ -0,0 +1,48 @@
+package com.learningsystemserver.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A finished AI explanation, stored when the persistent explanation cache is enabled.
+ * Looked up by cacheKey: hex SHA-256 of model, prompt version, language and normalized
+ * question text. Rows older than app.ai.cache.ttl-hours are ignored and purged.
+ */
+@Entity
+@Table(
+        name = "ai_explanations",
+        uniqueConstraints = @UniqueConstraint(name = "uk_ai_explanations_key", columnNames = "cache_key"),
+        indexes = @Index(name = "idx_ai_explanations_created_at", columnList = "created_at")
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AiExplanation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "cache_key", nullable = false, length = 64)
+    private String cacheKey;
+
+    @Column(nullable = false, length = 64)
+    private String model;
+
+    @Column(nullable = false, length = 8)
+    private String lang;
+
+    @Column(nullable = false, length = 2000)
+    private String question;
+
+    @Lob
+    @Column(nullable = false, length = 1024 * 1024)
+    private String answer;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
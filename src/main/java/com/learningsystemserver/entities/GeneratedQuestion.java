@@ -1,5 +1,6 @@
 package com.learningsystemserver.entities;
 
+import com.learningsystemserver.utils.TopicType;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -29,4 +30,10 @@ public class GeneratedQuestion {
 
     @Enumerated(EnumType.STRING)
     private DifficultyLevel difficultyLevel;
+
+    // Generator input; null for rows created before seeded generation
+    private Long seed;
+
+    @Enumerated(EnumType.STRING)
+    private TopicType topicType;
 }
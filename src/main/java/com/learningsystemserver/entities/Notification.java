@@ -5,7 +5,15 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(
+        name = "notifications",
+        indexes = {
+                @Index(name = "idx_notifications_recipient_id", columnList = "recipient_username, id"),
+                @Index(name = "idx_notifications_recipient_read_id", columnList = "recipient_username, is_read, id"),
+                // Retention deletes read rows by age; without it each batch scans and locks the table
+                @Index(name = "idx_notifications_read_timestamp", columnList = "is_read, timestamp")
+        }
+)
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -0,0 +1,59 @@
+package com.learningsystemserver.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Profile picture bytes, kept out of the users row. Rows are immutable: a new upload creates a
+ * new row (and so a new URL), which lets clients cache images indefinitely.
+ * Thumbnails are rows of their own pointing at the original through sourceId.
+ */
+@Entity
+@Table(
+        name = "profile_images",
+        indexes = {
+                @Index(name = "idx_profile_images_owner", columnList = "owner_id"),
+                @Index(name = "idx_profile_images_source", columnList = "source_id, size_px")
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProfileImage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    // Original image id for thumbnails, null for originals
+    @Column(name = "source_id")
+    private Long sourceId;
+
+    // Thumbnail edge length, null for originals
+    @Column(name = "size_px")
+    private Integer sizePx;
+
+    @Column(name = "content_type", nullable = false, length = 64)
+    private String contentType;
+
+    // Hex SHA-256 of data, used as the ETag
+    @Column(name = "sha256", nullable = false, length = 64)
+    private String sha256;
+
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+
+    @Lob
+    @Column(nullable = false, length = 20 * 1024 * 1024)
+    private byte[] data;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,34 @@
+package com.learningsystemserver.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A stateless question token that has been submitted once. The unique token hash makes every
+ * token single-use; rows are purged once the token would have expired anyway.
+ */
+@Entity
+@Table(
+        name = "redeemed_question_tokens",
+        uniqueConstraints = @UniqueConstraint(name = "uk_redeemed_question_tokens_hash", columnNames = "token_hash"),
+        indexes = @Index(name = "idx_redeemed_question_tokens_expires", columnList = "expires_at")
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RedeemedQuestionToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -43,8 +43,12 @@ public class User {
     @Column(name = "overall_progress_level", nullable = false)
     private DifficultyLevel overallProgressLevel;
 
-    @Lob
-    private byte[] profileImage;
+    // Current picture in profile_images (the bytes are never loaded with the user)
+    @Column(name = "profile_image_id")
+    private Long profileImageId;
+
+    @Column(name = "profile_image_hash", length = 64)
+    private String profileImageHash;
 
     @PrePersist
     public void prePersistDefaults() {
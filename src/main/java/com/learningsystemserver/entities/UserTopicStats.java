@@ -0,0 +1,40 @@
+package com.learningsystemserver.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Running attempt counters per user × topic, maintained on every submit so dashboards
+ * never need to scan user_question_history.
+ */
+@Entity
+@Table(
+        name = "user_topic_stats",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "topic_id"})
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserTopicStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    // Nullable: questions generated without a topic still count towards the totals
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "topic_id")
+    private Topic topic;
+
+    @Column(nullable = false)
+    private long attempts;
+
+    @Column(name = "correct_attempts", nullable = false)
+    private long correctAttempts;
+}
@@ -0,0 +1,36 @@
+package com.learningsystemserver.repositories;
+
+import com.learningsystemserver.entities.AiExplanation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface AiExplanationRepository extends JpaRepository<AiExplanation, Long> {
+
+    // Rows older than notBefore count as missing
+    @Query("select e.answer from AiExplanation e where e.cacheKey = :cacheKey and e.createdAt >= :notBefore")
+    Optional<String> findAnswerByCacheKey(@Param("cacheKey") String cacheKey,
+                                          @Param("notBefore") LocalDateTime notBefore);
+
+    // Overwrites an expired row in place (the key is unique, so a fresh answer cannot be inserted beside it)
+    @Modifying
+    @Transactional
+    @Query("update AiExplanation e set e.answer = :answer, e.createdAt = :createdAt " +
+            "where e.cacheKey = :cacheKey and e.createdAt < :notBefore")
+    int replaceExpired(@Param("cacheKey") String cacheKey,
+                       @Param("answer") String answer,
+                       @Param("createdAt") LocalDateTime createdAt,
+                       @Param("notBefore") LocalDateTime notBefore);
+
+    @Modifying
+    @Transactional
+    @Query("delete from AiExplanation e where e.createdAt < :notBefore")
+    int deleteCreatedBefore(@Param("notBefore") LocalDateTime notBefore);
+}
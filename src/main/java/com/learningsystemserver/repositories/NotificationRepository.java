@@ -1,16 +1,64 @@
 package com.learningsystemserver.repositories;
 
 import com.learningsystemserver.entities.Notification;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
-    List<Notification> findByRecipientUsernameAndIsReadFalse(String recipientUsername);
-    List<Notification> findByRecipientUsername(String recipientUsername);
+    // Keyset catch-up for resumed notification streams
+    List<Notification> findByRecipientUsernameAndIdGreaterThanOrderByIdAsc(String recipientUsername, Long id, Pageable pageable);
+
+    // Keyset pages, newest first
+    List<Notification> findByRecipientUsernameOrderByIdDesc(String recipientUsername, Pageable pageable);
+    List<Notification> findByRecipientUsernameAndIdLessThanOrderByIdDesc(String recipientUsername, Long id, Pageable pageable);
+
+    long countByRecipientUsernameAndIsReadFalse(String recipientUsername);
+
+    @Modifying
+    @Transactional
+    @Query("update Notification n set n.isRead = true " +
+            "where n.recipientUsername = :username and n.isRead = false and n.id in :ids")
+    int markRead(@Param("username") String username, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Transactional
+    @Query("update Notification n set n.isRead = true where n.recipientUsername = :username and n.isRead = false")
+    int markAllRead(@Param("username") String username);
+
     @Modifying
     @Transactional
     void deleteByRecipientUsername(String username);
+
+    // ---- retention (native, batched with LIMIT so each statement holds its locks briefly) ----
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM notifications WHERE is_read = true AND timestamp < :cutoff LIMIT :batchSize",
+            nativeQuery = true)
+    int deleteReadOlderThan(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
+
+    @Query(value = "SELECT recipient_username FROM notifications GROUP BY recipient_username HAVING COUNT(*) > :cap",
+            nativeQuery = true)
+    List<String> findRecipientsOver(@Param("cap") int cap);
+
+    // Id of the user's cap-th newest notification; everything older goes
+    @Query(value = "SELECT id FROM notifications WHERE recipient_username = :username " +
+            "ORDER BY id DESC LIMIT 1 OFFSET :offset", nativeQuery = true)
+    Long findIdAtOffset(@Param("username") String username, @Param("offset") int offset);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM notifications WHERE recipient_username = :username AND id < :keepFromId LIMIT :batchSize",
+            nativeQuery = true)
+    int deleteOlderThanId(@Param("username") String username,
+                          @Param("keepFromId") Long keepFromId,
+                          @Param("batchSize") int batchSize);
 }
@@ -0,0 +1,41 @@
+package com.learningsystemserver.repositories;
+
+import com.learningsystemserver.entities.ProfileImage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ProfileImageRepository extends JpaRepository<ProfileImage, Long> {
+
+    // Everything but the bytes, so conditional requests never touch the blob
+    Optional<Meta> findMetaById(Long id);
+
+    Optional<Meta> findMetaBySourceIdAndSizePx(Long sourceId, Integer sizePx);
+
+    @Query("select i.data from ProfileImage i where i.id = :id")
+    Optional<byte[]> findDataById(@Param("id") Long id);
+
+    @Modifying
+    @Query("delete from ProfileImage i where i.ownerId = :ownerId and i.id <> :keepId " +
+            "and (i.sourceId is null or i.sourceId <> :keepId)")
+    int deleteOtherImages(@Param("ownerId") Long ownerId, @Param("keepId") Long keepId);
+
+    @Modifying
+    @Query("delete from ProfileImage i where i.ownerId = :ownerId")
+    int deleteByOwner(@Param("ownerId") Long ownerId);
+
+    interface Meta {
+        Long getId();
+        Long getOwnerId();
+        Long getSourceId();
+        Integer getSizePx();
+        String getContentType();
+        String getSha256();
+        long getSizeBytes();
+    }
+}
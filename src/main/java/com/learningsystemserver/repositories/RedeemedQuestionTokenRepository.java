@@ -0,0 +1,20 @@
+package com.learningsystemserver.repositories;
+
+import com.learningsystemserver.entities.RedeemedQuestionToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface RedeemedQuestionTokenRepository extends JpaRepository<RedeemedQuestionToken, Long> {
+
+    @Modifying
+    @Transactional
+    @Query("delete from RedeemedQuestionToken t where t.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
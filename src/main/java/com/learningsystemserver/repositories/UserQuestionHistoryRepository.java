@@ -2,6 +2,7 @@ package com.learningsystemserver.repositories;
 
 import com.learningsystemserver.entities.UserQuestionHistory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,4 +12,15 @@ public interface UserQuestionHistoryRepository extends JpaRepository<UserQuestio
 
     // Recent attempts (per user + subtopic) for rolling accuracy
     List<UserQuestionHistory> findTop10ByUserIdAndQuestion_Topic_IdOrderByAttemptTimeDesc(Long userId, Long subtopicId);
+
+    // Cheap indexed read; pins the transaction's snapshot before the reconciliation scan
+    @Query("select max(h.id) from UserQuestionHistory h")
+    Long findMaxId();
+
+    // [topicId, attempts, correct] aggregated in the database, for admin rollup reconciliation.
+    // Counts the same rows as UserTopicStatsRepository.backfillFromHistory: a user and an existing question
+    @Query("select t.id, count(h), sum(case when h.correct = true then 1 else 0 end) " +
+            "from UserQuestionHistory h join h.question q left join q.topic t " +
+            "where h.user is not null group by t.id")
+    List<Object[]> countByTopic();
 }
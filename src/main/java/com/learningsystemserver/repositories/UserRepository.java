@@ -1,7 +1,11 @@
 package com.learningsystemserver.repositories;
 
+import com.learningsystemserver.entities.Role;
 import com.learningsystemserver.entities.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -14,4 +18,24 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+
+    // Credential columns only (no profile image), for authentication lookups
+    Optional<Credentials> findCredentialsByUsername(String username);
+
+    Optional<Credentials> findCredentialsByEmail(String email);
+
+    // Touches only the picture columns, so concurrent profile/settings/password edits survive
+    @Modifying
+    @Query("update User u set u.profileImageId = :imageId, u.profileImageHash = :hash where u.id = :userId")
+    int updateProfileImage(@Param("userId") Long userId,
+                           @Param("imageId") Long imageId,
+                           @Param("hash") String hash);
+
+    interface Credentials {
+        Long getId();
+        String getUsername();
+        String getEmail();
+        String getPassword();
+        Role getRole();
+    }
 }
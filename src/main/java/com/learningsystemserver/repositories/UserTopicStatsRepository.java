@@ -0,0 +1,54 @@
+package com.learningsystemserver.repositories;
+
+import com.learningsystemserver.entities.UserTopicStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UserTopicStatsRepository extends JpaRepository<UserTopicStats, Long> {
+
+    @Query("select s from UserTopicStats s left join fetch s.topic where s.user.id = :userId")
+    List<UserTopicStats> findByUserIdWithTopic(@Param("userId") Long userId);
+
+    // Insert-or-increment in one statement, so concurrent first attempts at a topic cannot collide
+    @Modifying
+    @Query(value = "INSERT INTO user_topic_stats (user_id, topic_id, attempts, correct_attempts) " +
+            "VALUES (:userId, :topicId, 1, :correctDelta) " +
+            "ON DUPLICATE KEY UPDATE attempts = attempts + 1, correct_attempts = correct_attempts + :correctDelta",
+            nativeQuery = true)
+    int upsertIncrement(@Param("userId") Long userId,
+                        @Param("topicId") Long topicId,
+                        @Param("correctDelta") long correctDelta);
+
+    // The unique key ignores NULL topics, so topic-less counters serialize on the user row instead
+    @Query(value = "SELECT id FROM users WHERE id = :userId FOR UPDATE", nativeQuery = true)
+    Long lockUser(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("update UserTopicStats s " +
+            "set s.attempts = s.attempts + 1, s.correctAttempts = s.correctAttempts + :correctDelta " +
+            "where s.user.id = :userId and s.topic is null")
+    int incrementWithoutTopic(@Param("userId") Long userId,
+                              @Param("correctDelta") long correctDelta);
+
+    // [topicId, attempts, correct] across all users, for the admin rollup
+    @Query("select t.id, sum(s.attempts), sum(s.correctAttempts) " +
+            "from UserTopicStats s left join s.topic t group by t.id")
+    List<Object[]> sumByTopic();
+
+    // One-off backfill for installs that already have history but no aggregates yet.
+    // Counts the same rows as UserQuestionHistoryRepository.countByTopic: a user and an existing question
+    @Modifying
+    @Query(value = "INSERT INTO user_topic_stats (user_id, topic_id, attempts, correct_attempts) " +
+            "SELECT h.user_id, q.topic_id, COUNT(*), SUM(CASE WHEN h.correct THEN 1 ELSE 0 END) " +
+            "FROM user_question_history h JOIN generated_questions q ON q.id = h.question_id " +
+            "WHERE h.user_id IS NOT NULL " +
+            "GROUP BY h.user_id, q.topic_id",
+            nativeQuery = true)
+    int backfillFromHistory();
+}
@@ -3,11 +3,8 @@ package com.learningsystemserver.services;
 import com.learningsystemserver.entities.DifficultyLevel;
 import com.learningsystemserver.entities.Topic;
 import com.learningsystemserver.entities.User;
-import com.learningsystemserver.entities.UserQuestionHistory;
 import com.learningsystemserver.entities.UserSubtopicProgress;
-import com.learningsystemserver.exceptions.InvalidInputException;
 import com.learningsystemserver.repositories.TopicRepository;
-import com.learningsystemserver.repositories.UserQuestionHistoryRepository;
 import com.learningsystemserver.repositories.UserRepository;
 import com.learningsystemserver.repositories.UserSubtopicProgressRepository;
 import lombok.RequiredArgsConstructor;
@@ -15,7 +12,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
@@ -26,12 +22,12 @@ public class AdaptiveService {
 
     private final UserRepository userRepository;
     private final TopicRepository topicRepository;
-    private final UserQuestionHistoryRepository historyRepository;
+    private final RecentAttemptWindow recentAttempts;
     private final UserSubtopicProgressRepository progressRepository;
     private final NotificationService notificationService;
 
     // --- Tunables (rolling window, thresholds, hysteresis & cooldown) ---
-    private static final int WINDOW = 10;             // rolling window size (actively used)
+    // Rolling window size is RecentAttemptWindow.CAPACITY
     private static final double UP_THRESHOLD = 0.75;  // promote threshold in window
     private static final double DOWN_THRESHOLD = 0.45;// demote threshold in window
     private static final int UP_STREAK = 3;           // require 3 in a row to move up
@@ -40,16 +36,17 @@ public class AdaptiveService {
 
     @Transactional
     public void evaluateUserProgress(Long userId, Long subtopicId) {
-        User user = userRepository.findById(userId).orElseThrow();
-        Topic subtopic = topicRepository.findById(subtopicId).orElseThrow();
+        // Rolling window comes from memory (no history query); bail out before touching the DB
+        RecentAttemptWindow.Stats recent = recentAttempts.stats(userId, subtopicId);
+        if (recent.size() == 0) return;
 
         // Ensure we have a progress row (INIT = BASIC; no dependency on user.currentDifficulty)
         UserSubtopicProgress progress = progressRepository
                 .findByUserIdAndSubtopicId(userId, subtopicId)
                 .orElseGet(() -> progressRepository.save(
                         UserSubtopicProgress.builder()
-                                .user(user)
-                                .subtopic(subtopic)
+                                .user(userRepository.getReferenceById(userId))
+                                .subtopic(topicRepository.getReferenceById(subtopicId))
                                 .currentDifficulty(DifficultyLevel.BASIC) // CHANGED
                                 .correctStreak(0)
                                 .wrongStreak(0)
@@ -58,13 +55,7 @@ public class AdaptiveService {
                                 .build()
                 ));
 
-        List<UserQuestionHistory> last = historyRepository
-                .findTop10ByUserIdAndQuestion_Topic_IdOrderByAttemptTimeDesc(userId, subtopicId);
-        if (last.isEmpty()) return;
-
-        List<UserQuestionHistory> recent = last.subList(0, Math.min(last.size(), WINDOW));
-
-        boolean lastCorrect = recent.get(0).isCorrect();
+        boolean lastCorrect = recent.lastCorrect();
         if (lastCorrect) {
             progress.setCorrectStreak(progress.getCorrectStreak() + 1);
             progress.setWrongStreak(0);
@@ -75,8 +66,7 @@ public class AdaptiveService {
 
         int attemptsSinceLastChange = progress.getAttemptsSinceLastChange() + 1;
 
-        long correctCount = recent.stream().filter(UserQuestionHistory::isCorrect).count();
-        double rate = correctCount / (double) recent.size();
+        double rate = recent.rate();
 
         DifficultyLevel before = progress.getCurrentDifficulty();
         DifficultyLevel after = before;
@@ -99,6 +89,9 @@ public class AdaptiveService {
         // REMOVED legacy sync to user.currentDifficulty
 
         if (after != before) {
+            // Only load names when there is something to tell the user
+            User user = userRepository.findById(userId).orElseThrow();
+            Topic subtopic = topicRepository.findById(subtopicId).orElseThrow();
             boolean promoted = ORDER.get(after) > ORDER.get(before);
             String message = String.format(
                     "Your difficulty for %s %s from %s to %s.",
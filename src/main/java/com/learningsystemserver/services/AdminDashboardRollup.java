@@ -0,0 +1,247 @@
+package com.learningsystemserver.services;
+
+import com.learningsystemserver.entities.Topic;
+import com.learningsystemserver.repositories.TopicRepository;
+import com.learningsystemserver.repositories.UserQuestionHistoryRepository;
+import com.learningsystemserver.repositories.UserTopicStatsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Global per-topic attempt counters for the admin dashboard.
+ * Incremented after each committed attempt, rebuilt at startup and periodically
+ * reconciled against user_question_history to correct any drift.
+ *
+ * Reconciliation pins its read snapshot while no attempt is between commit and counter
+ * increment, so every attempt is counted exactly once: by the scan if it committed before the
+ * snapshot, by the replayed deltas otherwise. It is skipped while history write-behind still
+ * holds unwritten rows, which the scan could not see.
+ */
+@Slf4j
+@Component
+public class AdminDashboardRollup {
+
+    // Attempts on questions generated without a topic (counted in totals only)
+    private static final long NO_TOPIC = -1L;
+
+    private final UserTopicStatsRepository statsRepository;
+    private final UserQuestionHistoryRepository historyRepository;
+    private final TopicRepository topicRepository;
+    private final HistoryWriteBehindQueue writeBehind;
+    private final TransactionTemplate snapshotTransaction;
+
+    private volatile Map<Long, Counters> counters = new ConcurrentHashMap<>();
+
+    // Increments share the read lock (LongAdder does the striping); only a map swap takes the write lock
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    // Held (shared) from just before an attempt commits until it is counted; reconcile takes it
+    // exclusively to pin its snapshot at a point where no attempt is half-way
+    private final ReadWriteLock commitLock = new ReentrantReadWriteLock();
+
+    // Non-null while a reconciliation is running: deltas recorded meanwhile are replayed on the fresh map
+    private volatile Map<Long, Counters> pendingDuringReconcile;
+
+    public AdminDashboardRollup(UserTopicStatsRepository statsRepository,
+                                UserQuestionHistoryRepository historyRepository,
+                                TopicRepository topicRepository,
+                                HistoryWriteBehindQueue writeBehind,
+                                PlatformTransactionManager transactionManager) {
+        this.statsRepository = statsRepository;
+        this.historyRepository = historyRepository;
+        this.topicRepository = topicRepository;
+        this.writeBehind = writeBehind;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTransaction.setReadOnly(true);
+    }
+
+    /** Counts the attempt once the surrounding transaction commits (immediately if there is none). */
+    public void recordAttempt(Long topicId, boolean correct) {
+        long key = topicId != null ? topicId : NO_TOPIC;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private boolean locked;
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    commitLock.readLock().lock();
+                    locked = true;
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    try {
+                        if (status == STATUS_COMMITTED) {
+                            increment(key, correct);
+                        }
+                    } finally {
+                        if (locked) {
+                            locked = false;
+                            commitLock.readLock().unlock();
+                        }
+                    }
+                }
+            });
+        } else {
+            increment(key, correct);
+        }
+    }
+
+    public Snapshot snapshot() {
+        Map<Long, Counters> current = counters;
+
+        Set<Long> topicIds = new HashSet<>(current.keySet());
+        topicIds.remove(NO_TOPIC);
+        Map<Long, String> names = new HashMap<>();
+        for (Topic t : topicRepository.findAllById(topicIds)) {
+            names.put(t.getId(), t.getName());
+        }
+
+        long totalAttempts = 0;
+        long totalCorrect = 0;
+        // Merge by topic name (matches the previous history-based grouping)
+        Map<String, long[]> byName = new TreeMap<>();
+        for (Map.Entry<Long, Counters> e : current.entrySet()) {
+            long attempts = e.getValue().attempts.sum();
+            long correct = e.getValue().correct.sum();
+            totalAttempts += attempts;
+            totalCorrect += correct;
+
+            String name = names.get(e.getKey());
+            if (name == null) continue;
+            long[] acc = byName.computeIfAbsent(name, k -> new long[2]);
+            acc[0] += attempts;
+            acc[1] += correct;
+        }
+
+        Map<String, Long> attemptsByTopic = new LinkedHashMap<>();
+        Map<String, Long> correctByTopic = new LinkedHashMap<>();
+        byName.forEach((name, acc) -> {
+            attemptsByTopic.put(name, acc[0]);
+            correctByTopic.put(name, acc[1]);
+        });
+        return new Snapshot(totalAttempts, totalCorrect, attemptsByTopic, correctByTopic);
+    }
+
+    /** Startup load from the per-user aggregates (cheap: O(users × topics)). */
+    public void rebuild() {
+        Map<Long, Counters> fresh = new ConcurrentHashMap<>();
+        for (Object[] row : statsRepository.sumByTopic()) {
+            load(fresh, row);
+        }
+        swapLock.writeLock().lock();
+        try {
+            counters = fresh;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        log.info("Admin dashboard rollup loaded for {} topic(s).", fresh.size());
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.dashboard.reconcile-interval-ms:600000}",
+            fixedDelayString = "${app.dashboard.reconcile-interval-ms:600000}"
+    )
+    public void reconcile() {
+        Map<Long, Counters> pending = new ConcurrentHashMap<>();
+        try {
+            List<Object[]> rows = snapshotTransaction.execute(status -> {
+                commitLock.writeLock().lock();
+                try {
+                    // Rows still queued in write-behind are counted but not scannable yet
+                    if (writeBehind.hasPending()) return null;
+                    // First read fixes the snapshot: everything counted so far is in it, nothing later is
+                    historyRepository.findMaxId();
+                    pendingDuringReconcile = pending;
+                } finally {
+                    commitLock.writeLock().unlock();
+                }
+                return historyRepository.countByTopic();
+            });
+            if (rows == null) {
+                log.debug("Admin dashboard reconciliation skipped: history write-behind has unwritten rows.");
+                return;
+            }
+            Map<Long, Counters> fresh = new ConcurrentHashMap<>();
+            for (Object[] row : rows) {
+                load(fresh, row);
+            }
+
+            swapLock.writeLock().lock();
+            try {
+                pendingDuringReconcile = null;
+                pending.forEach((key, delta) -> {
+                    Counters c = fresh.computeIfAbsent(key, k -> new Counters());
+                    c.attempts.add(delta.attempts.sum());
+                    c.correct.add(delta.correct.sum());
+                });
+                long before = total(counters);
+                long after = total(fresh);
+                counters = fresh;
+                if (before != after) {
+                    log.info("Admin dashboard rollup reconciled: {} -> {} attempts.", before, after);
+                }
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        } catch (Exception e) {
+            pendingDuringReconcile = null;
+            log.warn("Admin dashboard reconciliation failed (keeping current counters): {}", e.getMessage());
+        }
+    }
+
+    // ---- internals ----
+
+    private void increment(long key, boolean correct) {
+        swapLock.readLock().lock();
+        try {
+            add(counters, key, correct);
+            Map<Long, Counters> pending = pendingDuringReconcile;
+            if (pending != null) {
+                add(pending, key, correct);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private static void add(Map<Long, Counters> map, long key, boolean correct) {
+        Counters c = map.computeIfAbsent(key, k -> new Counters());
+        c.attempts.increment();
+        if (correct) c.correct.increment();
+    }
+
+    private static void load(Map<Long, Counters> map, Object[] row) {
+        long key = row[0] != null ? ((Number) row[0]).longValue() : NO_TOPIC;
+        Counters c = map.computeIfAbsent(key, k -> new Counters());
+        c.attempts.add(row[1] != null ? ((Number) row[1]).longValue() : 0L);
+        c.correct.add(row[2] != null ? ((Number) row[2]).longValue() : 0L);
+    }
+
+    private static long total(Map<Long, Counters> map) {
+        return map.values().stream().mapToLong(c -> c.attempts.sum()).sum();
+    }
+
+    private static final class Counters {
+        final LongAdder attempts = new LongAdder();
+        final LongAdder correct = new LongAdder();
+    }
+
+    public record Snapshot(long totalAttempts,
+                           long totalCorrect,
+                           Map<String, Long> attemptsByTopic,
+                           Map<String, Long> correctByTopic) {}
+}
@@ -0,0 +1,8 @@
+package com.learningsystemserver.services;
+
+/**
+ * Published by {@link UserHistoryService#logAttempt} once an attempt is stored.
+ * Carries just enough to refresh the submitting user's dashboards.
+ */
+public record AttemptRecordedEvent(Long userId, String username, boolean admin) {
+}
@@ -0,0 +1,77 @@
+package com.learningsystemserver.services;
+
+import com.learningsystemserver.dtos.responses.AdminDashboardResponse;
+import com.learningsystemserver.dtos.responses.UserDashboardResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rebuilds and pushes dashboards off the submit path.
+ * Attempts from the same user within the coalescing window trigger a single rebuild.
+ */
+@Slf4j
+@Component
+public class DashboardPushPipeline {
+
+    private final DashboardService dashboardService;
+    private final SseHub sseHub;
+    private final long coalesceMillis;
+
+    // userId -> push waiting for its window to elapse
+    private final Map<Long, AttemptRecordedEvent> pending = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "dashboard-push");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public DashboardPushPipeline(DashboardService dashboardService,
+                                 SseHub sseHub,
+                                 @Value("${app.dashboard.push-coalesce-ms:200}") long coalesceMillis) {
+        this.dashboardService = dashboardService;
+        this.sseHub = sseHub;
+        this.coalesceMillis = coalesceMillis;
+    }
+
+    // Runs after the submit transaction commits, so the rebuild sees the new attempt
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAttemptRecorded(AttemptRecordedEvent event) {
+        AttemptRecordedEvent previous = pending.put(event.userId(), event);
+        if (previous == null) {
+            scheduler.schedule(() -> flush(event.userId()), coalesceMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush(Long userId) {
+        // Remove first: attempts arriving while we rebuild schedule a fresh push
+        AttemptRecordedEvent event = pending.remove(userId);
+        if (event == null) return;
+
+        try {
+            UserDashboardResponse userData = dashboardService.buildUserDashboard(event.username());
+            sseHub.publish(event.username(), SseChannel.USER_DASHBOARD, userData);
+
+            if (event.admin()) {
+                AdminDashboardResponse adminData = dashboardService.buildAdminDashboard();
+                sseHub.publish(event.username(), SseChannel.ADMIN_DASHBOARD, adminData);
+            }
+        } catch (Exception e) {
+            log.warn("Dashboard push failed: userId={}, cause={}", userId, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -5,9 +5,9 @@ import com.learningsystemserver.dtos.responses.UserDashboardResponse;
 import com.learningsystemserver.entities.*;
 import com.learningsystemserver.exceptions.InvalidInputException;
 import com.learningsystemserver.repositories.TopicRepository;
-import com.learningsystemserver.repositories.UserQuestionHistoryRepository;
 import com.learningsystemserver.repositories.UserRepository;
 import com.learningsystemserver.repositories.UserSubtopicProgressRepository;
+import com.learningsystemserver.repositories.UserTopicStatsRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,9 +21,10 @@ import java.util.stream.Collectors;
 public class DashboardService {
 
     private final UserRepository userRepository;
-    private final UserQuestionHistoryRepository historyRepository;
     private final TopicRepository topicRepository;
     private final UserSubtopicProgressRepository progressRepository;
+    private final UserTopicStatsRepository statsRepository;
+    private final AdminDashboardRollup adminRollup;
 
 
     // ------------------- Public APIs -------------------
@@ -34,19 +35,17 @@ public class DashboardService {
                 .orElseThrow(() -> new InvalidInputException("No user found for " + username));
         final Long userId = user.getId();
 
-        // All user histories
-        List<UserQuestionHistory> userHistories = historyRepository.findAll().stream()
-                .filter(h -> h.getUser() != null && Objects.equals(h.getUser().getId(), userId))
-                .collect(Collectors.toList());
+        // Pre-aggregated per-topic counters (maintained on every submit)
+        List<UserTopicStats> userStats = statsRepository.findByUserIdWithTopic(userId);
 
         // Aggregates
-        TopicAgg topicAgg = aggregateTopicStats(userHistories);
-        long totalAttempts = userHistories.size();
-        long correct = userHistories.stream().filter(UserQuestionHistory::isCorrect).count();
+        TopicAgg topicAgg = aggregateTopicStats(userStats);
+        long totalAttempts = userStats.stream().mapToLong(UserTopicStats::getAttempts).sum();
+        long correct = userStats.stream().mapToLong(UserTopicStats::getCorrectAttempts).sum();
         double successRatePercent = totalAttempts == 0 ? 0.0 : round1((correct * 100.0) / totalAttempts);
 
-        // Difficulty maps computed per-user from history
-        TopicDifficultyMaps difficultyMaps = computeUserDifficultyMaps(userId, userHistories);
+        // Difficulty maps computed per-user from the progress table
+        TopicDifficultyMaps difficultyMaps = computeUserDifficultyMaps(userId);
 
         UserDashboardResponse resp = new UserDashboardResponse();
         resp.setUserId(user.getId());
@@ -78,28 +77,31 @@ public class DashboardService {
 
     @Transactional(readOnly = true)
     public AdminDashboardResponse buildAdminDashboard() {
-        List<UserQuestionHistory> all = historyRepository.findAll();
+        // Served from the in-memory global rollup (no history scan)
+        AdminDashboardRollup.Snapshot snapshot = adminRollup.snapshot();
 
-        long totalAttempts = all.size();
-        long correct = all.stream().filter(UserQuestionHistory::isCorrect).count();
+        long totalAttempts = snapshot.totalAttempts();
+        long correct = snapshot.totalCorrect();
         double successRatePercent = totalAttempts == 0 ? 0.0 : round1((correct * 100.0) / totalAttempts);
 
-        // De-duplicated via helpers
-        Map<String, Long> attemptsByTopic = computeAttemptsByTopic(all);
-        Map<String, Double> successRateByTopic = computeSuccessRateByTopic(all);
+        Map<String, Double> successRateByTopic = new LinkedHashMap<>();
+        snapshot.attemptsByTopic().forEach((name, attempts) -> {
+            long topicCorrect = snapshot.correctByTopic().getOrDefault(name, 0L);
+            successRateByTopic.put(name, attempts == 0 ? 0.0 : round1((topicCorrect * 100.0) / (double) attempts));
+        });
 
         AdminDashboardResponse resp = new AdminDashboardResponse();
         resp.setTotalUsers(userRepository.count());
         resp.setTotalAttempts(totalAttempts);
         resp.setOverallSuccessRate(successRatePercent);
-        resp.setAttemptsByTopic(attemptsByTopic);
+        resp.setAttemptsByTopic(snapshot.attemptsByTopic());
         resp.setSuccessRateByTopic(successRateByTopic);
         return resp;
     }
 
     // ------------------- Difficulty maps (per-user) -------------------
 
-    private TopicDifficultyMaps computeUserDifficultyMaps(Long userId, List<UserQuestionHistory> userHistories) {
+    private TopicDifficultyMaps computeUserDifficultyMaps(Long userId) {
         List<Topic> allTopics = topicRepository.findByDeletedFalse();
 
         Map<Long, Topic> byId = allTopics.stream()
@@ -150,40 +152,25 @@ public class DashboardService {
     }
 
 
-    // ------------------- Aggregation helpers (de-duplicated) -------------------
+    // ------------------- Aggregation helpers -------------------
 
-    private TopicAgg aggregateTopicStats(List<UserQuestionHistory> list) {
-        return new TopicAgg(
-                computeAttemptsByTopic(list),
-                computeSuccessRateByTopic(list)
-        );
-    }
-
-    private Map<String, Long> computeAttemptsByTopic(List<UserQuestionHistory> list) {
-        return list.stream()
-                .filter(this::hasTopic)
-                .collect(Collectors.groupingBy(
-                        h -> h.getQuestion().getTopic().getName(),
-                        LinkedHashMap::new,
-                        Collectors.counting()
-                ));
-    }
-
-    private Map<String, Double> computeSuccessRateByTopic(List<UserQuestionHistory> list) {
-        return list.stream()
-                .filter(this::hasTopic)
-                .collect(Collectors.groupingBy(
-                        h -> h.getQuestion().getTopic().getName(),
-                        LinkedHashMap::new,
-                        Collectors.collectingAndThen(Collectors.toList(), attempts -> {
-                            long correct = attempts.stream().filter(UserQuestionHistory::isCorrect).count();
-                            return attempts.isEmpty() ? 0.0 : round1((correct * 100.0) / (double) attempts.size());
-                        })
-                ));
-    }
+    private TopicAgg aggregateTopicStats(List<UserTopicStats> stats) {
+        // Merge by topic name: subtopics that share a name are reported as one entry
+        Map<String, long[]> byName = new LinkedHashMap<>();
+        for (UserTopicStats s : stats) {
+            if (s.getTopic() == null) continue;
+            long[] acc = byName.computeIfAbsent(s.getTopic().getName(), k -> new long[2]);
+            acc[0] += s.getAttempts();
+            acc[1] += s.getCorrectAttempts();
+        }
 
-    private boolean hasTopic(UserQuestionHistory h) {
-        return h.getQuestion() != null && h.getQuestion().getTopic() != null;
+        Map<String, Long> attemptsByTopic = new LinkedHashMap<>();
+        Map<String, Double> successRateByTopic = new LinkedHashMap<>();
+        byName.forEach((name, acc) -> {
+            attemptsByTopic.put(name, acc[0]);
+            successRateByTopic.put(name, acc[0] == 0 ? 0.0 : round1((acc[1] * 100.0) / (double) acc[0]));
+        });
+        return new TopicAgg(attemptsByTopic, successRateByTopic);
     }
 
     // ------------------- Difficulty helpers -------------------
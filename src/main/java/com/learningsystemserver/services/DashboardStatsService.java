@@ -0,0 +1,52 @@
+package com.learningsystemserver.services;
+
+import com.learningsystemserver.entities.Topic;
+import com.learningsystemserver.entities.User;
+import com.learningsystemserver.entities.UserTopicStats;
+import com.learningsystemserver.repositories.UserQuestionHistoryRepository;
+import com.learningsystemserver.repositories.UserTopicStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Maintains the per-user / per-topic attempt counters the dashboards are served from.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DashboardStatsService {
+
+    private final UserTopicStatsRepository statsRepository;
+    private final UserQuestionHistoryRepository historyRepository;
+    private final AdminDashboardRollup adminRollup;
+
+    /** Must run inside the submit transaction so counters and history commit together. */
+    @Transactional
+    public void recordAttempt(User user, Topic topic, boolean correct) {
+        Long topicId = topic != null ? topic.getId() : null;
+        if (topicId != null) {
+            statsRepository.upsertIncrement(user.getId(), topicId, correct ? 1 : 0);
+        } else {
+            statsRepository.lockUser(user.getId());
+            if (statsRepository.incrementWithoutTopic(user.getId(), correct ? 1 : 0) == 0) {
+                statsRepository.save(UserTopicStats.builder()
+                        .user(user)
+                        .attempts(1)
+                        .correctAttempts(correct ? 1 : 0)
+                        .build());
+            }
+        }
+        adminRollup.recordAttempt(topicId, correct);
+    }
+
+    @Transactional
+    public void backfillIfEmpty() {
+        if (statsRepository.count() > 0 || historyRepository.count() == 0) {
+            return;
+        }
+        int rows = statsRepository.backfillFromHistory();
+        log.info("Backfilled {} user_topic_stats rows from user_question_history.", rows);
+    }
+}
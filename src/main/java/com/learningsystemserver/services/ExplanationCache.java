@@ -0,0 +1,163 @@
+package com.learningsystemserver.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.learningsystemserver.entities.AiExplanation;
+import com.learningsystemserver.repositories.AiExplanationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Finished AI explanations keyed by (model, prompt version, language, normalized question), so a
+ * recurring question such as "7 + 5 = ?" is answered once. The prompt version changes whenever
+ * the prompt or sampling settings do, so old answers stop matching. A size-bounded in-memory tier
+ * is always on; app.ai.cache.persistent adds the ai_explanations table behind it, which survives
+ * restarts. Both tiers expire entries after app.ai.cache.ttl-hours.
+ * Lookups are counted as ai.explanations.cache{result=hit|miss} and the hit ratio is a gauge.
+ */
+@Slf4j
+@Component
+public class ExplanationCache {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final AiExplanationRepository repository;
+    private final boolean enabled;
+    private final boolean persistent;
+    private final Duration ttl;
+    private final Cache<String, String> memory;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public ExplanationCache(AiExplanationRepository repository,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.ai.cache.enabled:true}") boolean enabled,
+                            @Value("${app.ai.cache.persistent:false}") boolean persistent,
+                            @Value("${app.ai.cache.max-entries:1000}") long maxEntries,
+                            @Value("${app.ai.cache.ttl-hours:168}") long ttlHours) {
+        this.repository = repository;
+        this.enabled = enabled;
+        this.persistent = persistent;
+        this.ttl = Duration.ofHours(Math.max(1, ttlHours));
+        this.memory = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .build();
+
+        this.hits = Counter.builder("ai.explanations.cache")
+                .description("Explanation cache lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("ai.explanations.cache")
+                .description("Explanation cache lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("ai.explanations.cache.hit.ratio", this, ExplanationCache::hitRatio)
+                .description("Share of explanation requests answered from the cache")
+                .register(meterRegistry);
+        Gauge.builder("ai.explanations.cache.size", memory, Cache::estimatedSize)
+                .description("Explanations held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Key for a question (also identifies identical in-flight generations). {@code promptVersion}
+     * is anything that changes when the prompt or sampling settings do.
+     */
+    public Key keyFor(String model, String promptVersion, String lang, String questionText) {
+        String question = normalize(questionText);
+        String hash = sha256Hex(model + '\n' + promptVersion + '\n' + lang + '\n' + question);
+        return new Key(hash, model, lang, question);
+    }
+
+    public Optional<String> get(Key key) {
+        if (!enabled || key == null) return Optional.empty();
+        String answer = memory.getIfPresent(key.hash());
+        if (answer == null && persistent) {
+            answer = repository.findAnswerByCacheKey(key.hash(), LocalDateTime.now().minus(ttl)).orElse(null);
+            if (answer != null) {
+                memory.put(key.hash(), answer);
+            }
+        }
+        (answer != null ? hits : misses).increment();
+        return Optional.ofNullable(answer);
+    }
+
+    /** Stores a complete answer (never a partial or failed one). */
+    public void put(Key key, String answer) {
+        if (!enabled || key == null || answer == null || answer.isBlank()) return;
+        memory.put(key.hash(), answer);
+        if (!persistent) return;
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            repository.save(AiExplanation.builder()
+                    .cacheKey(key.hash())
+                    .model(key.model())
+                    .lang(key.lang())
+                    .question(key.question().length() > 2000 ? key.question().substring(0, 2000) : key.question())
+                    .answer(answer)
+                    .createdAt(now)
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // Either an expired row (not purged yet) or another generation that got there first
+            if (repository.replaceExpired(key.hash(), answer, now, now.minus(ttl)) == 0) {
+                log.debug("Explanation {} already stored", key.hash());
+            }
+        } catch (Exception e) {
+            log.warn("Could not persist explanation {}: {}", key.hash(), e.getMessage());
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.ai.cache.purge-interval-ms:3600000}",
+            fixedDelayString = "${app.ai.cache.purge-interval-ms:3600000}"
+    )
+    public void purgeExpired() {
+        if (!enabled || !persistent) return;
+        int purged = repository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+        if (purged > 0) {
+            log.debug("Purged {} expired AI explanations", purged);
+        }
+    }
+
+    /** NFKC, lower case, single spaces: "7+5 = ?" and " 7+5  =  ?" share one entry. */
+    static String normalize(String questionText) {
+        if (questionText == null) return "";
+        String s = Normalizer.normalize(questionText, Normalizer.Form.NFKC);
+        return WHITESPACE.matcher(s.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private static String sha256Hex(String s) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(s.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record Key(String hash, String model, String lang, String question) {}
+}
@@ -0,0 +1,293 @@
+package com.learningsystemserver.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Optional write-behind for user_question_history (app.history.write-behind.enabled).
+ * Committed attempts are queued in memory and inserted by a background thread using
+ * multi-row INSERT statements, so a burst of submits costs a few round trips instead of one each.
+ * A full queue makes the submitting thread insert synchronously; rows that fail are retried with
+ * backoff up to app.history.write-behind.max-retries times, then written to the
+ * {@code history.dead-letter} log so they can be re-inserted by hand.
+ *
+ * Loss window: queued rows live only in memory, so a crash (not a clean shutdown) loses every
+ * attempt accepted but not yet written — up to capacity rows, normally about one flush interval.
+ * That is why the feature is off by default.
+ */
+@Slf4j
+@Component
+public class HistoryWriteBehindQueue {
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO user_question_history " +
+            "(user_id, question_id, correct, user_answer, attempt_time, time_taken_seconds) VALUES ";
+    private static final String ROW_PLACEHOLDER = "(?, ?, ?, ?, ?, ?)";
+    private static final Logger DEAD_LETTER = LoggerFactory.getLogger("history.dead-letter");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final int maxRetries;
+    private final BlockingQueue<PendingAttempt> queue;
+    // Rows whose insert failed, waiting for their next attempt (also visible to pendingFor)
+    private final ConcurrentLinkedQueue<Retry> retries = new ConcurrentLinkedQueue<>();
+
+    // Rows drained from the queue but not yet written (still visible to pendingFor)
+    private volatile List<PendingAttempt> inFlight = List.of();
+    // Accepted but not yet written (or given up on); covers rows between the queue and inFlight
+    private final AtomicInteger unwritten = new AtomicInteger();
+    private volatile boolean running;
+    private Thread writer;
+
+    public HistoryWriteBehindQueue(JdbcTemplate jdbcTemplate,
+                                   @Value("${app.history.write-behind.enabled:false}") boolean enabled,
+                                   @Value("${app.history.write-behind.capacity:10000}") int capacity,
+                                   @Value("${app.history.write-behind.batch-size:200}") int batchSize,
+                                   @Value("${app.history.write-behind.flush-interval-ms:250}") long flushIntervalMillis,
+                                   @Value("${app.history.write-behind.max-retries:5}") int maxRetries) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMillis = Math.max(1, flushIntervalMillis);
+        this.maxRetries = Math.max(0, maxRetries);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) return;
+        running = true;
+        writer = new Thread(this::drainLoop, "history-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("History write-behind enabled (batchSize={}, flushIntervalMs={}).", batchSize, flushIntervalMillis);
+    }
+
+    /** Queues the attempt once the surrounding transaction commits; dropped on rollback. */
+    public void enqueueAfterCommit(PendingAttempt attempt) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(attempt);
+                }
+            });
+        } else {
+            enqueue(attempt);
+        }
+    }
+
+    /** True while some accepted attempt has not reached the database yet. */
+    public boolean hasPending() {
+        return unwritten.get() > 0;
+    }
+
+    /** Attempts for this user + topic that are not in the database yet, oldest first. */
+    public List<PendingAttempt> pendingFor(Long userId, Long topicId) {
+        if (!enabled) return List.of();
+        List<PendingAttempt> result = new ArrayList<>();
+        for (PendingAttempt a : inFlight) {
+            if (a.matches(userId, topicId)) result.add(a);
+        }
+        for (PendingAttempt a : queue) {
+            if (a.matches(userId, topicId)) result.add(a);
+        }
+        for (Retry r : retries) {
+            if (r.attempt().matches(userId, topicId)) result.add(r.attempt());
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) return;
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Whatever is left goes out synchronously
+        List<PendingAttempt> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            write(rest);
+        }
+        // One last try for failed rows, then they are dead-lettered rather than silently lost
+        for (Retry r; (r = retries.poll()) != null; ) {
+            if (insertQuietly(r.attempt())) {
+                unwritten.decrementAndGet();
+            } else {
+                deadLetter(r.attempt(), r.failures() + 1);
+            }
+        }
+    }
+
+    // ---- internals ----
+
+    private void enqueue(PendingAttempt attempt) {
+        unwritten.incrementAndGet();
+        if (!queue.offer(attempt)) {
+            // Back-pressure: the queue is full, so this caller pays for its own insert
+            log.debug("History write-behind queue full; inserting synchronously.");
+            write(List.of(attempt));
+        }
+    }
+
+    private void drainLoop() {
+        while (running) {
+            try {
+                retryDue();
+                PendingAttempt first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+
+                List<PendingAttempt> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                inFlight = Collections.unmodifiableList(batch);
+                try {
+                    write(batch);
+                } finally {
+                    inFlight = List.of();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("History write-behind loop error: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void write(List<PendingAttempt> batch) {
+        List<PendingAttempt> failed = List.of();
+        try {
+            failed = writeRows(batch);
+        } finally {
+            // Failed rows stay counted as unwritten until a retry lands or they are dead-lettered
+            unwritten.addAndGet(failed.size() - batch.size());
+        }
+        for (PendingAttempt a : failed) {
+            scheduleRetry(a, 1);
+        }
+    }
+
+    /** Inserts the batch; returns the rows that could not be written. */
+    private List<PendingAttempt> writeRows(List<PendingAttempt> batch) {
+        try {
+            insertRows(batch);
+            return List.of();
+        } catch (Exception e) {
+            // Isolate the bad row(s) instead of holding back the whole batch
+            log.warn("Batched history insert of {} rows failed ({}); retrying row by row.", batch.size(), e.getMessage());
+            List<PendingAttempt> failed = new ArrayList<>();
+            for (PendingAttempt a : batch) {
+                if (!insertQuietly(a)) failed.add(a);
+            }
+            return failed;
+        }
+    }
+
+    private void retryDue() {
+        long now = System.currentTimeMillis();
+        for (int n = retries.size(); n > 0; n--) {
+            Retry r = retries.poll();
+            if (r == null) return;
+            if (r.retryAt() > now) {
+                retries.add(r);
+            } else if (insertQuietly(r.attempt())) {
+                unwritten.decrementAndGet();
+            } else {
+                scheduleRetry(r.attempt(), r.failures() + 1);
+            }
+        }
+    }
+
+    private void scheduleRetry(PendingAttempt a, int failures) {
+        if (failures > maxRetries) {
+            deadLetter(a, failures);
+            return;
+        }
+        // Exponential backoff from one flush interval, capped at a minute
+        long delay = Math.min(60_000L, flushIntervalMillis << Math.min(failures - 1, 16));
+        retries.add(new Retry(a, failures, System.currentTimeMillis() + delay));
+    }
+
+    private void deadLetter(PendingAttempt a, int failures) {
+        unwritten.decrementAndGet();
+        DEAD_LETTER.error("userId={}, questionId={}, correct={}, attemptTime={}, timeTakenSeconds={}, failures={}, userAnswer={}",
+                a.userId(), a.questionId(), a.correct(), a.attemptTime(), a.timeTakenSeconds(), failures, a.userAnswer());
+    }
+
+    private boolean insertQuietly(PendingAttempt a) {
+        try {
+            insertRows(List.of(a));
+            return true;
+        } catch (Exception e) {
+            log.warn("History row userId={}, questionId={} failed: {}", a.userId(), a.questionId(), e.getMessage());
+            return false;
+        }
+    }
+
+    private void insertRows(List<PendingAttempt> rows) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows.size() * (ROW_PLACEHOLDER.length() + 2));
+        sql.append(INSERT_PREFIX);
+        Object[] args = new Object[rows.size() * 6];
+        int i = 0;
+        for (PendingAttempt a : rows) {
+            if (i > 0) sql.append(", ");
+            sql.append(ROW_PLACEHOLDER);
+            args[i++] = a.userId();
+            args[i++] = a.questionId();
+            args[i++] = a.correct();
+            args[i++] = a.userAnswer();
+            args[i++] = Timestamp.valueOf(a.attemptTime());
+            args[i++] = a.timeTakenSeconds();
+        }
+        jdbcTemplate.update(sql.toString(), args);
+    }
+
+    private record Retry(PendingAttempt attempt, int failures, long retryAt) {}
+
+    public record PendingAttempt(Long userId,
+                                 Long questionId,
+                                 Long topicId,
+                                 boolean correct,
+                                 String userAnswer,
+                                 LocalDateTime attemptTime,
+                                 Long timeTakenSeconds) {
+
+        boolean matches(Long userId, Long topicId) {
+            return Objects.equals(this.userId, userId) && Objects.equals(this.topicId, topicId);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.learningsystemserver.services;
 
 import com.learningsystemserver.utils.CookieUtils;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -64,10 +65,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         try {
-            final String username = jwtService.extractUsername(access);
+            // Signature and expiry are checked here, once (cached per token)
+            final Claims claims = jwtService.verify(access);
+            final String username = claims.getSubject();
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
                 var userDetails = userDetailsService.loadUserByUsername(username);
-                if (jwtService.isTokenValid(access, userDetails)) {
+                if (username.equalsIgnoreCase(userDetails.getUsername())) {
                     var authToken = new UsernamePasswordAuthenticationToken(
                             userDetails, null, userDetails.getAuthorities());
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -94,10 +97,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         try {
             // Only accept real, non-expired refresh tokens
-            if (!jwtService.isExpired(refresh)
-                    && "refresh".equals(jwtService.extractClaim(refresh, c -> (String) c.get("typ")))) {
+            Claims claims = jwtService.verify(refresh);
+            if ("refresh".equals(claims.get("typ"))) {
 
-                String username = jwtService.extractUsername(refresh);
+                String username = claims.getSubject();
                 var userDetails = userDetailsService.loadUserByUsername(username);
 
                 // Mint new access
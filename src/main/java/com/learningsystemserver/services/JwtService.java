@@ -1,5 +1,8 @@
 package com.learningsystemserver.services;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,6 +12,10 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Date;
@@ -19,8 +26,20 @@ import java.util.function.Function;
 public class JwtService {
 
     private final SecretKey key;
+    private final JwtParser parser;
     private final UserDetailsService userDetailsService;
 
+    // Verified claims by SHA-256 of the token, each entry living until the token's own expiry
+    private final Cache<ByteBuffer, Claims> verifiedTokens;
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    });
+
     @Value("${security.jwt.access-minutes:15}")
     private long accessMinutes;
 
@@ -29,10 +48,32 @@ public class JwtService {
 
     public JwtService(
             @Value("${security.jwt.secret}") String secret,
+            @Value("${security.jwt.cache.max-size:10000}") long cacheMaxSize,
             @Lazy UserDetailsService userDetailsService
     ) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
         this.userDetailsService = userDetailsService;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new Expiry<ByteBuffer, Claims>() {
+                    @Override
+                    public long expireAfterCreate(ByteBuffer token, Claims claims, long currentTime) {
+                        long millisLeft = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return Math.max(0, millisLeft) * 1_000_000L;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(ByteBuffer token, Claims claims, long currentTime, long currentDuration) {
+                        return expireAfterCreate(token, claims, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(ByteBuffer token, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
     public String generateAccessToken(UserDetails user) {
@@ -92,11 +133,33 @@ public class JwtService {
         }
     }
 
+    /**
+     * Claims of a correctly signed, unexpired token. Parses and verifies the token once; repeat calls
+     * with the same token (polling, SSE reconnects) are answered from the cache without any crypto.
+     * Throws {@link ExpiredJwtException} / {@link JwtException} like the parser does.
+     */
+    public Claims verify(String token) {
+        ByteBuffer cacheKey = cacheKey(token);
+        Claims cached = verifiedTokens.getIfPresent(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(cacheKey, claims);
+        }
+        return claims;
+    }
+
+    private static ByteBuffer cacheKey(String token) {
+        MessageDigest digest = SHA256.get();
+        digest.reset();
+        return ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+
     private Claims parseClaims(String token) {
         try {
-            return Jwts.parserBuilder().setSigningKey(key).build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            return verify(token);
         } catch (ExpiredJwtException e) {
             // Return the claims even when expired so we can read the subject safely when needed
             return e.getClaims();
@@ -0,0 +1,113 @@
+package com.learningsystemserver.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.learningsystemserver.entities.Notification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Last few notifications pushed to each user, so a reconnecting stream can be resumed from its
+ * Last-Event-ID without touching the database.
+ *
+ * A ring only answers for ids it can vouch for: every notification of that user with an id
+ * above its {@code coveredFrom} mark was recorded in it. The mark starts at the first recorded
+ * id, moves up as old entries are evicted and moves down after a database catch-up
+ * ({@link #markDelivered}). Rings of inactive users expire.
+ */
+@Component
+public class NotificationReplayBuffer {
+
+    private final int capacity;
+    private final Cache<String, Ring> rings;
+
+    public NotificationReplayBuffer(@Value("${app.notifications.replay.buffer-size:50}") int capacity,
+                                    @Value("${app.notifications.replay.max-users:10000}") long maxUsers,
+                                    @Value("${app.notifications.replay.idle-minutes:60}") long idleMinutes) {
+        this.capacity = capacity;
+        this.rings = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .build();
+    }
+
+    public void record(Notification notification) {
+        rings.get(notification.getRecipientUsername(), k -> new Ring()).add(notification);
+    }
+
+    /**
+     * Notifications after {@code lastId} in id order, or empty if this buffer cannot tell
+     * whether some were missed (the caller then reads the database).
+     */
+    public Optional<List<Notification>> after(String username, long lastId) {
+        Ring ring = rings.getIfPresent(username);
+        return ring == null ? Optional.empty() : ring.after(lastId);
+    }
+
+    /**
+     * Records that every notification of {@code username} up to {@code upToId} has been read
+     * from the database, so later reconnects from that point on can be served from memory.
+     */
+    public void markDelivered(String username, long upToId) {
+        rings.get(username, k -> new Ring()).coverFrom(upToId);
+    }
+
+    /** Drops the user's ring, e.g. after their notifications were deleted. */
+    public void forget(String username) {
+        rings.invalidate(username);
+    }
+
+    private final class Ring {
+        private final ArrayDeque<Notification> entries = new ArrayDeque<>();
+        // Replays are exact for any lastId >= coveredFrom
+        private long coveredFrom = Long.MAX_VALUE;
+
+        synchronized void add(Notification n) {
+            if (coveredFrom == Long.MAX_VALUE) {
+                coveredFrom = n.getId();
+            }
+            // Pushes from concurrent transactions can arrive slightly out of id order
+            if (entries.isEmpty() || entries.peekLast().getId() < n.getId()) {
+                entries.addLast(n);
+            } else {
+                List<Notification> tail = new ArrayList<>();
+                while (!entries.isEmpty() && entries.peekLast().getId() > n.getId()) {
+                    tail.add(entries.pollLast());
+                }
+                entries.addLast(n);
+                for (int i = tail.size() - 1; i >= 0; i--) {
+                    entries.addLast(tail.get(i));
+                }
+            }
+            while (entries.size() > capacity) {
+                coveredFrom = Math.max(coveredFrom, entries.pollFirst().getId());
+            }
+        }
+
+        synchronized Optional<List<Notification>> after(long lastId) {
+            if (lastId < coveredFrom) {
+                return Optional.empty();
+            }
+            List<Notification> missed = new ArrayList<>();
+            for (Iterator<Notification> it = entries.descendingIterator(); it.hasNext(); ) {
+                Notification n = it.next();
+                if (n.getId() <= lastId) break;
+                missed.add(n);
+            }
+            Collections.reverse(missed);
+            return Optional.of(missed);
+        }
+
+        synchronized void coverFrom(long id) {
+            coveredFrom = Math.min(coveredFrom, id);
+        }
+    }
+}
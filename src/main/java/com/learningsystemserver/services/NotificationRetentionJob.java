@@ -0,0 +1,112 @@
+package com.learningsystemserver.services;
+
+import com.learningsystemserver.repositories.NotificationRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Periodically trims the notifications table (app.notifications.retention.*):
+ * read notifications older than read-days are removed, and each user keeps at most
+ * max-per-user of their newest notifications. Deletes run as many small LIMIT-ed statements,
+ * each in its own transaction, so the job never holds locks for long.
+ */
+@Slf4j
+@Component
+public class NotificationRetentionJob {
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationService notificationService;
+    private final boolean enabled;
+    private final int readDays;
+    private final int maxPerUser;
+    private final int batchSize;
+
+    private final DistributionSummary purgedByAge;
+    private final DistributionSummary purgedByCap;
+    private final Timer runTimer;
+
+    public NotificationRetentionJob(NotificationRepository notificationRepository,
+                                    NotificationService notificationService,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${app.notifications.retention.enabled:true}") boolean enabled,
+                                    @Value("${app.notifications.retention.read-days:30}") int readDays,
+                                    @Value("${app.notifications.retention.max-per-user:500}") int maxPerUser,
+                                    @Value("${app.notifications.retention.batch-size:1000}") int batchSize) {
+        this.notificationRepository = notificationRepository;
+        this.notificationService = notificationService;
+        this.enabled = enabled;
+        this.readDays = readDays;
+        this.maxPerUser = maxPerUser; // <= 0: no per-user cap
+        // A batch of 0 would never finish a delete loop
+        this.batchSize = Math.max(1, batchSize);
+
+        this.purgedByAge = purgedSummary(meterRegistry, "age");
+        this.purgedByCap = purgedSummary(meterRegistry, "cap");
+        this.runTimer = Timer.builder("notifications.retention.run")
+                .description("Duration of a notification retention run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.notifications.retention.interval-ms:3600000}",
+            fixedDelayString = "${app.notifications.retention.interval-ms:3600000}"
+    )
+    public void purge() {
+        if (!enabled) return;
+        runTimer.record(() -> {
+            try {
+                long byAge = purgeReadOlderThan(LocalDateTime.now().minusDays(readDays));
+                long byCap = purgeOverCap();
+                purgedByAge.record(byAge);
+                purgedByCap.record(byCap);
+                if (byAge + byCap > 0) {
+                    log.info("Notification retention removed {} old read and {} over-cap notification(s).", byAge, byCap);
+                }
+            } catch (Exception e) {
+                log.warn("Notification retention run failed: {}", e.getMessage());
+            }
+        });
+    }
+
+    private long purgeReadOlderThan(LocalDateTime cutoff) {
+        long total = 0;
+        int deleted;
+        do {
+            deleted = notificationRepository.deleteReadOlderThan(cutoff, batchSize);
+            total += deleted;
+        } while (deleted == batchSize);
+        // Only read rows go here, so unread counters stay valid
+        return total;
+    }
+
+    private long purgeOverCap() {
+        if (maxPerUser <= 0) return 0;
+        long total = 0;
+        for (String username : notificationRepository.findRecipientsOver(maxPerUser)) {
+            Long keepFromId = notificationRepository.findIdAtOffset(username, maxPerUser - 1);
+            if (keepFromId == null) continue;
+            int deleted;
+            do {
+                deleted = notificationRepository.deleteOlderThanId(username, keepFromId, batchSize);
+                total += deleted;
+            } while (deleted == batchSize);
+            // Unread rows may be among them
+            notificationService.forgetCachedState(username);
+        }
+        return total;
+    }
+
+    private static DistributionSummary purgedSummary(MeterRegistry meterRegistry, String reason) {
+        return DistributionSummary.builder("notifications.retention.purged")
+                .description("Notifications deleted per retention run")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -1,30 +1,83 @@
 package com.learningsystemserver.services;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.learningsystemserver.entities.DifficultyLevel;
 import com.learningsystemserver.entities.Notification;
 import com.learningsystemserver.repositories.NotificationRepository;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class NotificationService {
 
+    /** Sent instead of a replay when too much was missed; the client should refetch the list. */
+    public static final String RESYNC_EVENT = "notificationsResync";
+
     private final NotificationRepository notificationRepository;
-    private final SseEmitterService sseEmitterService;
+    private final SseHub sseHub;
+    private final NotificationReplayBuffer replayBuffer;
+    private final int maxReplayRows;
+    private final int maxPageSize;
+
+    // Unread count per user, loaded once and then adjusted in place by create / mark-read.
+    // Entries expire so any drift (e.g. concurrent load and create) heals on its own.
+    private final Cache<String, AtomicLong> unreadCounts;
+
+    public NotificationService(NotificationRepository notificationRepository,
+                               SseHub sseHub,
+                               NotificationReplayBuffer replayBuffer,
+                               @Value("${app.notifications.replay.max-db-rows:200}") int maxReplayRows,
+                               @Value("${app.notifications.page.max-size:200}") int maxPageSize,
+                               @Value("${app.notifications.unread-cache.max-size:10000}") long unreadCacheSize,
+                               @Value("${app.notifications.unread-cache.ttl-seconds:600}") long unreadCacheTtlSeconds) {
+        this.notificationRepository = notificationRepository;
+        this.sseHub = sseHub;
+        this.replayBuffer = replayBuffer;
+        this.maxReplayRows = maxReplayRows;
+        this.maxPageSize = maxPageSize;
+        this.unreadCounts = Caffeine.newBuilder()
+                .maximumSize(unreadCacheSize)
+                .expireAfterWrite(Duration.ofSeconds(unreadCacheTtlSeconds))
+                .build();
+    }
+
+    /**
+     * One keyset page of the user's notifications, newest first. Pass the smallest id of the
+     * previous page as {@code beforeId} to get the next one (null for the first page).
+     */
+    public List<Notification> getNotifications(String username, Long beforeId, int limit) {
+        PageRequest page = PageRequest.of(0, Math.max(1, Math.min(limit, maxPageSize)));
+        return beforeId == null
+                ? notificationRepository.findByRecipientUsernameOrderByIdDesc(username, page)
+                : notificationRepository.findByRecipientUsernameAndIdLessThanOrderByIdDesc(username, beforeId, page);
+    }
+
+    public long getUnreadCount(String username) {
+        return unreadCounts.get(username,
+                k -> new AtomicLong(notificationRepository.countByRecipientUsernameAndIsReadFalse(k))).get();
+    }
 
-    public List<Notification> getAllNotifications(String username) {
-        return notificationRepository.findByRecipientUsername(username);
+    /** Marks the given notifications of {@code username} as read in one UPDATE; returns rows changed. */
+    public int markAsRead(String username, Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) return 0;
+        return adjustUnread(username, notificationRepository.markRead(username, ids));
     }
 
-    public void markNotificationAsRead(Long id) {
-        Notification n = notificationRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Notification not found"));
-        n.setRead(true);
-        notificationRepository.save(n);
+    public int markAllAsRead(String username) {
+        return adjustUnread(username, notificationRepository.markAllRead(username));
     }
 
     public Notification createNotification(String message, String recipientUsername, String type) {
@@ -37,10 +90,52 @@ public class NotificationService {
                 .build();
 
         Notification saved = notificationRepository.save(notification);
-        sseEmitterService.sendNotification(recipientUsername, saved);
+        // Clients only ever see committed ids: a rolled-back caller must not leave them in the
+        // replay buffer or on the stream
+        afterCommit(() -> {
+            AtomicLong unread = unreadCounts.getIfPresent(recipientUsername);
+            if (unread != null) {
+                unread.incrementAndGet();
+            }
+            replayBuffer.record(saved);
+            // The row id doubles as the SSE event id, so reconnects can resume via Last-Event-ID
+            sseHub.publish(recipientUsername, SseChannel.NOTIFICATIONS, String.valueOf(saved.getId()), saved);
+        });
         return saved;
     }
 
+    /**
+     * Re-sends what a reconnecting stream missed after {@code lastEventId} (the Last-Event-ID
+     * header; null or malformed means a fresh connection). Served from the replay buffer when it
+     * can, otherwise by one keyset read; more than app.notifications.replay.max-db-rows missed
+     * sends {@link #RESYNC_EVENT} instead. Call after the emitter is connected, so nothing
+     * published meanwhile is lost; a duplicate may arrive, which clients drop by event id.
+     */
+    public void resume(String username, SseEmitter emitter, String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) return;
+        long lastId;
+        try {
+            lastId = Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return;
+        }
+
+        List<Notification> missed = replayBuffer.after(username, lastId).orElse(null);
+        if (missed == null) {
+            missed = notificationRepository.findByRecipientUsernameAndIdGreaterThanOrderByIdAsc(
+                    username, lastId, PageRequest.of(0, maxReplayRows + 1));
+            if (missed.size() > maxReplayRows) {
+                log.debug("Notification replay for {} exceeds {} rows, asking client to resync", username, maxReplayRows);
+                sseHub.signal(emitter, RESYNC_EVENT);
+                return;
+            }
+            replayBuffer.markDelivered(username, missed.isEmpty() ? lastId : missed.get(missed.size() - 1).getId());
+        }
+        for (Notification n : missed) {
+            sseHub.send(emitter, SseChannel.NOTIFICATIONS, String.valueOf(n.getId()), n);
+        }
+    }
+
     public void notifyUserDifficulty(String username, String topicName) {
         String message = String.format(
                 "You are having difficulty with %s. We recommend you practice more!",
@@ -65,6 +160,34 @@ public class NotificationService {
 
     public void clearAllNotificationsForUser(String username) {
         notificationRepository.deleteByRecipientUsername(username);
+        forgetCachedState(username);
+    }
+
+    /** Drops cached counters and replay state after rows were removed behind our back (retention). */
+    public void forgetCachedState(String username) {
+        replayBuffer.forget(username);
+        unreadCounts.invalidate(username);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private int adjustUnread(String username, int markedRead) {
+        AtomicLong unread = unreadCounts.getIfPresent(username);
+        if (unread != null && markedRead > 0) {
+            unread.updateAndGet(n -> Math.max(0, n - markedRead));
+        }
+        return markedRead;
     }
 }
 
@@ -0,0 +1,243 @@
+package com.learningsystemserver.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Admission control for Ollama generations (app.ai.*).
+ *
+ * At most max-in-flight generations run at once, on a pool of that many workers. Others wait
+ * in per-user queues served round-robin, so one user opening many explanations cannot starve
+ * the rest. While waiting, each request is told its 1-based position whenever that changes
+ * (sent to clients as a {@code queue} event). {@link #submit} throws RejectedExecutionException
+ * when the queue (or the user's share of it) is full; callers answer 429 with
+ * {@link #getRetryAfterSeconds}.
+ */
+@Slf4j
+@Component
+public class OllamaAdmissionQueue {
+
+    private final int maxInFlight;
+    private final int capacity;
+    private final int maxQueuedPerUser;
+    private final int retryAfterSeconds;
+    private final ThreadPoolExecutor workers;
+
+    // Guarded by this
+    private final Map<String, ArrayDeque<Ticket>> waitingByUser = new HashMap<>();
+    private final ArrayDeque<String> rotation = new ArrayDeque<>();
+    private int waiting;
+    private int inFlight;
+
+    private final Counter rejected;
+    private final Timer waitTimer;
+
+    public OllamaAdmissionQueue(MeterRegistry meterRegistry,
+                                @Value("${app.ai.max-in-flight:2}") int maxInFlight,
+                                @Value("${app.ai.queue-capacity:50}") int capacity,
+                                @Value("${app.ai.max-queued-per-user:3}") int maxQueuedPerUser,
+                                @Value("${app.ai.retry-after-seconds:15}") int retryAfterSeconds) {
+        this.maxInFlight = maxInFlight;
+        this.capacity = capacity;
+        this.maxQueuedPerUser = maxQueuedPerUser;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        AtomicInteger threadNo = new AtomicInteger();
+        // Admission is gated above, so the work queue never holds more than the idle workers take
+        this.workers = new ThreadPoolExecutor(maxInFlight, maxInFlight, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "ollama-stream-" + threadNo.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+
+        Gauge.builder("ai.generations.waiting", this, q -> q.snapshotCounts()[0])
+                .description("Generation requests waiting for a slot")
+                .register(meterRegistry);
+        Gauge.builder("ai.generations.in.flight", this, q -> q.snapshotCounts()[1])
+                .description("Generations currently running against Ollama")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("ai.generations.rejected")
+                .description("Generation requests rejected because the queue was full")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("ai.generations.wait")
+                .description("Time spent waiting for a generation slot")
+                .register(meterRegistry);
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    /**
+     * Queues {@code work} for {@code username}; it runs on a worker once admitted.
+     * {@code onPosition} hears the queue position while it waits. It is called on whichever
+     * thread dispatches (often a worker that just freed its slot), so it must not block.
+     */
+    public Ticket submit(String username, IntConsumer onPosition, Runnable work) {
+        Ticket ticket = new Ticket(username, onPosition, work);
+        synchronized (this) {
+            ArrayDeque<Ticket> userQueue = waitingByUser.get(username);
+            int userWaiting = userQueue == null ? 0 : userQueue.size();
+            boolean slotFree = inFlight < maxInFlight && waiting == 0;
+            if (!slotFree && (waiting >= capacity || userWaiting >= maxQueuedPerUser)) {
+                rejected.increment();
+                throw new RejectedExecutionException("Generation queue is full");
+            }
+            if (userQueue == null) {
+                userQueue = new ArrayDeque<>();
+                waitingByUser.put(username, userQueue);
+                rotation.addLast(username);
+            }
+            userQueue.addLast(ticket);
+            waiting++;
+        }
+        dispatch();
+        return ticket;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    // ---- internals ----
+
+    /** Starts whatever fits in the free slots, then tells everyone still waiting where they stand. */
+    private void dispatch() {
+        List<Ticket> started = new ArrayList<>();
+        List<Ticket> stillWaiting;
+        synchronized (this) {
+            while (inFlight < maxInFlight && waiting > 0) {
+                Ticket next = pollNext();
+                inFlight++;
+                next.state = Ticket.RUNNING;
+                started.add(next);
+            }
+            stillWaiting = orderedWaiting();
+        }
+        for (Ticket ticket : started) {
+            waitTimer.record(System.nanoTime() - ticket.enqueuedAt, TimeUnit.NANOSECONDS);
+            try {
+                workers.execute(() -> run(ticket));
+            } catch (RejectedExecutionException e) {
+                // Shutting down: whatever was admitted is dropped with the pool
+                log.debug("Generation pool is shut down, dropping admitted request of {}", ticket.username);
+            }
+        }
+        for (int i = 0; i < stillWaiting.size(); i++) {
+            stillWaiting.get(i).announcePosition(i + 1);
+        }
+    }
+
+    private void run(Ticket ticket) {
+        try {
+            ticket.work.run();
+        } catch (Exception e) {
+            log.warn("Generation for {} failed: {}", ticket.username, e.getMessage());
+        } finally {
+            synchronized (this) {
+                inFlight--;
+            }
+            dispatch();
+        }
+    }
+
+    // Next user in rotation gives up their oldest request; they go to the back if more remain
+    private Ticket pollNext() {
+        String username = rotation.pollFirst();
+        ArrayDeque<Ticket> userQueue = waitingByUser.get(username);
+        Ticket next = userQueue.pollFirst();
+        if (userQueue.isEmpty()) {
+            waitingByUser.remove(username);
+        } else {
+            rotation.addLast(username);
+        }
+        waiting--;
+        return next;
+    }
+
+    // The order pollNext would admit the waiting requests in
+    private List<Ticket> orderedWaiting() {
+        List<Ticket> order = new ArrayList<>(waiting);
+        List<Iterator<Ticket>> lanes = new ArrayList<>(rotation.size());
+        for (String username : rotation) {
+            lanes.add(waitingByUser.get(username).iterator());
+        }
+        boolean any = true;
+        while (any) {
+            any = false;
+            for (Iterator<Ticket> lane : lanes) {
+                if (lane.hasNext()) {
+                    order.add(lane.next());
+                    any = true;
+                }
+            }
+        }
+        return order;
+    }
+
+    private synchronized void cancel(Ticket ticket) {
+        if (ticket.state != Ticket.WAITING) return;
+        ticket.state = Ticket.CANCELLED;
+        ArrayDeque<Ticket> userQueue = waitingByUser.get(ticket.username);
+        if (userQueue != null && userQueue.remove(ticket)) {
+            waiting--;
+            if (userQueue.isEmpty()) {
+                waitingByUser.remove(ticket.username);
+                rotation.remove(ticket.username);
+            }
+        }
+    }
+
+    private synchronized int[] snapshotCounts() {
+        return new int[]{waiting, inFlight};
+    }
+
+    /** A submitted generation; cancel it when its client goes away. */
+    public final class Ticket {
+        private static final int WAITING = 0, RUNNING = 1, CANCELLED = 2;
+
+        private final String username;
+        private final IntConsumer onPosition;
+        private final Runnable work;
+        private final long enqueuedAt = System.nanoTime();
+        private int state = WAITING; // guarded by the queue
+        private volatile int lastAnnounced;
+
+        private Ticket(String username, IntConsumer onPosition, Runnable work) {
+            this.username = username;
+            this.onPosition = onPosition;
+            this.work = work;
+        }
+
+        /** Drops the request if it has not started yet; no effect once running. */
+        public void cancel() {
+            OllamaAdmissionQueue.this.cancel(this);
+            // Positions behind it moved up
+            dispatch();
+        }
+
+        private void announcePosition(int position) {
+            if (position == lastAnnounced) return;
+            lastAnnounced = position;
+            try {
+                onPosition.accept(position);
+            } catch (Exception e) {
+                log.debug("Could not report queue position to {}: {}", username, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.learningsystemserver.services;
+
+import com.learningsystemserver.exceptions.InvalidInputException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Upload pipeline for profile pictures: sniff and validate the format, decode with ImageIO,
+ * cap the stored original and render square JPEG thumbnails. Decoding is CPU and memory heavy,
+ * so it runs on a small bounded pool; when that is saturated {@link #process} fails fast with
+ * RejectedExecutionException instead of queueing without limit.
+ */
+@Component
+public class ProfileImageProcessor {
+
+    private static final Set<String> ACCEPTED_FORMATS = Set.of("jpeg", "png", "gif", "bmp");
+
+    private final int maxSourcePixels;
+    private final int originalMaxPx;
+    private final List<Integer> variantSizes;
+    private final float jpegQuality;
+    private final ThreadPoolExecutor executor;
+
+    public ProfileImageProcessor(@Value("${app.profile-images.max-source-pixels:40000000}") int maxSourcePixels,
+                                 @Value("${app.profile-images.original-max-px:1024}") int originalMaxPx,
+                                 @Value("${app.profile-images.variant-sizes:64,256}") List<Integer> variantSizes,
+                                 @Value("${app.profile-images.jpeg-quality:0.85}") float jpegQuality,
+                                 @Value("${app.profile-images.processing-threads:2}") int threads,
+                                 @Value("${app.profile-images.processing-queue:16}") int queueCapacity) {
+        this.maxSourcePixels = maxSourcePixels;
+        this.originalMaxPx = originalMaxPx;
+        this.variantSizes = variantSizes.stream().sorted().toList();
+        this.jpegQuality = jpegQuality;
+
+        AtomicInteger threadNo = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "profile-image-" + threadNo.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public List<Integer> getVariantSizes() {
+        return variantSizes;
+    }
+
+    /**
+     * Decodes and re-encodes {@code data} off the request thread. Completes exceptionally with
+     * InvalidInputException for unreadable or oversized images.
+     */
+    public CompletableFuture<ProcessedImage> process(byte[] data) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return render(data);
+            } catch (InvalidInputException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // ---- internals ----
+
+    private ProcessedImage render(byte[] data) throws InvalidInputException {
+        BufferedImage source = decode(data);
+
+        Rendition original = encode(scaleToFit(source, originalMaxPx), null);
+        List<Rendition> variants = new ArrayList<>(variantSizes.size());
+        BufferedImage square = cropToSquare(source);
+        for (int size : variantSizes) {
+            variants.add(encode(scaleToFit(square, size), size));
+        }
+        return new ProcessedImage(original, variants);
+    }
+
+    private BufferedImage decode(byte[] data) throws InvalidInputException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new InvalidInputException("Unsupported image format.");
+            }
+            ImageReader reader = readers.next();
+            try {
+                if (!ACCEPTED_FORMATS.contains(reader.getFormatName().toLowerCase())) {
+                    throw new InvalidInputException("Unsupported image format: " + reader.getFormatName());
+                }
+                reader.setInput(in, true, true);
+                // Check the header before allocating pixels (decompression bombs)
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels <= 0 || pixels > maxSourcePixels) {
+                    throw new InvalidInputException("Image dimensions are too large.");
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            throw new InvalidInputException("Could not read image: " + e.getMessage());
+        }
+    }
+
+    private static BufferedImage cropToSquare(BufferedImage image) {
+        int side = Math.min(image.getWidth(), image.getHeight());
+        int x = (image.getWidth() - side) / 2;
+        int y = (image.getHeight() - side) / 2;
+        return image.getSubimage(x, y, side, side);
+    }
+
+    /**
+     * Fits the image into maxPx × maxPx on an opaque RGB canvas (JPEG has no alpha; transparent
+     * areas become white). Large reductions are done in halving steps to avoid aliasing.
+     */
+    private static BufferedImage scaleToFit(BufferedImage image, int maxPx) {
+        double scale = Math.min(1.0, (double) maxPx / Math.max(image.getWidth(), image.getHeight()));
+        int targetW = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int targetH = Math.max(1, (int) Math.round(image.getHeight() * scale));
+
+        BufferedImage current = image;
+        int w = image.getWidth();
+        int h = image.getHeight();
+        do {
+            w = Math.max(targetW, w / 2);
+            h = Math.max(targetH, h / 2);
+            BufferedImage step = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = step.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, w, h);
+                g.drawImage(current, 0, 0, w, h, null);
+            } finally {
+                g.dispose();
+            }
+            current = step;
+        } while (w != targetW || h != targetH);
+        return current;
+    }
+
+    private Rendition encode(BufferedImage image, Integer sizePx) throws InvalidInputException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException e) {
+            throw new InvalidInputException("Could not encode image: " + e.getMessage());
+        } finally {
+            writer.dispose();
+        }
+        return new Rendition(sizePx, out.toByteArray());
+    }
+
+    /** {@code sizePx} is null for the (capped) original. */
+    public record Rendition(Integer sizePx, byte[] jpeg) {}
+
+    public record ProcessedImage(Rendition original, List<Rendition> variants) {}
+}
@@ -0,0 +1,122 @@
+package com.learningsystemserver.services;
+
+import com.learningsystemserver.entities.ProfileImage;
+import com.learningsystemserver.entities.User;
+import com.learningsystemserver.repositories.ProfileImageRepository;
+import com.learningsystemserver.repositories.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+public class ProfileImageService {
+
+    public static final String URL_PREFIX = "/api/profile/image/";
+
+    private final ProfileImageRepository imageRepository;
+    private final UserRepository userRepository;
+    private final ProfileImageProcessor processor;
+
+    /** Stores a processed upload (original + thumbnails) as the user's picture and drops the previous one. */
+    @Transactional
+    public ProfileImage replace(User user, ProfileImageProcessor.ProcessedImage processed) {
+        ProfileImage image = create(user.getId(), processed.original().jpeg());
+        for (ProfileImageProcessor.Rendition variant : processed.variants()) {
+            ProfileImage thumbnail = newImage(user.getId(), variant.jpeg());
+            thumbnail.setSourceId(image.getId());
+            thumbnail.setSizePx(variant.sizePx());
+            imageRepository.save(thumbnail);
+        }
+        imageRepository.deleteOtherImages(user.getId(), image.getId());
+        // The user was loaded before processing started; saving it would overwrite newer edits
+        userRepository.updateProfileImage(user.getId(), image.getId(), image.getSha256());
+        user.setProfileImageId(image.getId());
+        user.setProfileImageHash(image.getSha256());
+        return image;
+    }
+
+    @Transactional
+    public void remove(User user) {
+        imageRepository.deleteByOwner(user.getId());
+        userRepository.updateProfileImage(user.getId(), null, null);
+        user.setProfileImageId(null);
+        user.setProfileImageHash(null);
+    }
+
+    /** Inserts an image row without touching the owner (used by the legacy column migration). */
+    @Transactional
+    public ProfileImage create(Long ownerId, byte[] data) {
+        return imageRepository.save(newImage(ownerId, data));
+    }
+
+    /**
+     * Metadata of image {@code id}, or of its smallest thumbnail at least {@code sizePx} wide when
+     * a size is requested. Falls back to the original (e.g. for pictures migrated without thumbnails).
+     */
+    public Optional<ProfileImageRepository.Meta> findMeta(Long id, Integer sizePx) {
+        if (sizePx != null) {
+            for (int variantSize : processor.getVariantSizes()) {
+                if (variantSize >= sizePx) {
+                    Optional<ProfileImageRepository.Meta> variant = imageRepository.findMetaBySourceIdAndSizePx(id, variantSize);
+                    if (variant.isPresent()) {
+                        return variant;
+                    }
+                    break;
+                }
+            }
+        }
+        return imageRepository.findMetaById(id);
+    }
+
+    public Optional<byte[]> findData(Long id) {
+        return imageRepository.findDataById(id);
+    }
+
+    private static ProfileImage newImage(Long ownerId, byte[] data) {
+        return ProfileImage.builder()
+                .ownerId(ownerId)
+                .contentType(sniffContentType(data))
+                .sha256(sha256Hex(data))
+                .sizeBytes(data.length)
+                .data(data)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    public static String urlFor(User user) {
+        return user.getProfileImageId() != null ? URL_PREFIX + user.getProfileImageId() : null;
+    }
+
+    // Magic numbers of the formats browsers render; anything else is served as opaque bytes
+    static String sniffContentType(byte[] data) {
+        if (startsWith(data, 0xFF, 0xD8, 0xFF)) return "image/jpeg";
+        if (startsWith(data, 0x89, 'P', 'N', 'G')) return "image/png";
+        if (startsWith(data, 'G', 'I', 'F', '8')) return "image/gif";
+        if (startsWith(data, 'R', 'I', 'F', 'F') && data.length >= 12
+                && data[8] == 'W' && data[9] == 'E' && data[10] == 'B' && data[11] == 'P') return "image/webp";
+        return "application/octet-stream";
+    }
+
+    private static boolean startsWith(byte[] data, int... prefix) {
+        if (data.length < prefix.length) return false;
+        for (int i = 0; i < prefix.length; i++) {
+            if ((data[i] & 0xFF) != prefix[i]) return false;
+        }
+        return true;
+    }
+
+    private static String sha256Hex(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+}
@@ -1,222 +1,128 @@
 package com.learningsystemserver.services;
 
-import com.learningsystemserver.utils.QuestionAlgorithmsFunctions;
 import com.learningsystemserver.entities.DifficultyLevel;
 import com.learningsystemserver.entities.GeneratedQuestion;
 import com.learningsystemserver.entities.Topic;
 import com.learningsystemserver.exceptions.InvalidInputException;
 import com.learningsystemserver.repositories.GeneratedQuestionRepository;
 import com.learningsystemserver.repositories.TopicRepository;
-import lombok.RequiredArgsConstructor;
+import com.learningsystemserver.utils.QuestionEngine;
+import com.learningsystemserver.utils.TopicType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.Random;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
+/**
+ * Every question is derived from (topic type, difficulty, seed) by {@link QuestionEngine}.
+ * With app.questions.store-seed-only the text columns are left empty and regenerated from the
+ * seed whenever a question is loaded ({@link #hydrate}); rows written before seeds existed keep
+ * their stored text.
+ */
 @Service
-@RequiredArgsConstructor
 public class QuestionGeneratorService {
 
     private final TopicRepository topicRepository;
     private final GeneratedQuestionRepository questionRepository;
-    private final Random random = new Random();
+    private final boolean storeSeedOnly;
+
+    public QuestionGeneratorService(TopicRepository topicRepository,
+                                    GeneratedQuestionRepository questionRepository,
+                                    @Value("${app.questions.store-seed-only:false}") boolean storeSeedOnly) {
+        this.topicRepository = topicRepository;
+        this.questionRepository = questionRepository;
+        this.storeSeedOnly = storeSeedOnly;
+    }
 
     public GeneratedQuestion generateQuestion(Long topicId, DifficultyLevel difficultyLevel) {
         Topic topic = null;
         if (topicId != null) {
             topic = topicRepository.findById(topicId).orElse(null);
         }
-        if (topic == null) {
-            return createAdditionQuestion(null, difficultyLevel);
-        }
-        String nameLower = topic.getName().toLowerCase();
-        String topicType = determineTopicType(nameLower);
-        switch (topicType) {
-            case "addition":
-                return createAdditionQuestion(topic, difficultyLevel);
-            case "subtraction":
-                return createSubtractionQuestion(topic, difficultyLevel);
-            case "multiplication":
-                return createMultiplicationQuestion(topic, difficultyLevel);
-            case "division":
-                return createDivisionQuestion(topic, difficultyLevel);
-            case "fractions":
-                return createFractionsQuestion(topic, difficultyLevel);
-            case "rectangle":
-                return createRectangleQuestion(topic, difficultyLevel);
-            case "circle":
-                return createCircleQuestion(topic, difficultyLevel);
-            case "triangle":
-                return createTriangleQuestion(topic, difficultyLevel);
-            case "polygon":
-                return createPolygonQuestion(topic, difficultyLevel);
-            default:
-                return createAdditionQuestion(topic, difficultyLevel);
-        }
-    }
-
-    private String determineTopicType(String nameLower) {
-        if (nameLower.contains("addition")) return "addition";
-        if (nameLower.contains("subtraction")) return "subtraction";
-        if (nameLower.contains("multiplication")) return "multiplication";
-        if (nameLower.contains("division")) return "division";
-        if (nameLower.contains("fractions")) return "fractions";
-        if (nameLower.contains("rectangle")) return "rectangle";
-        if (nameLower.contains("circle")) return "circle";
-        if (nameLower.contains("triangle")) return "triangle";
-        if (nameLower.contains("polygon")) return "polygon";
-        return "addition";
+        return hydrate(questionRepository.save(newQuestion(topic, difficultyLevel, nextSeed())));
     }
 
-    private GeneratedQuestion createAdditionQuestion(Topic topic, DifficultyLevel difficulty) {
-        int[] range = getRangeForDifficulty(difficulty);
-        int a = getRandomNumber(range);
-        int b = getRandomNumber(range);
-        int answer = a + b;
-        String questionText = a + " + " + b + " = ?";
-        String solutionSteps = QuestionAlgorithmsFunctions.simplifyAddition(a, b, answer);
-        return saveQuestion(questionText, solutionSteps, String.valueOf(answer), topic, difficulty);
+    public boolean topicExists(Long topicId) {
+        return topicId != null && topicRepository.existsById(topicId);
     }
 
-    private GeneratedQuestion createSubtractionQuestion(Topic topic, DifficultyLevel difficulty) {
-        int[] range = getRangeForDifficulty(difficulty);
-        int a = getRandomNumber(range);
-        int b = getRandomNumber(range);
-        if (a < b) {
-            int temp = a;
-            a = b;
-            b = temp;
+    /**
+     * Generates and persists {@code count} questions of an existing topic in one batch (used to
+     * refill the question pool).
+     */
+    public List<GeneratedQuestion> generateBatch(Long topicId, DifficultyLevel difficultyLevel, int count)
+            throws InvalidInputException {
+        Topic topic = topicRepository.findById(topicId)
+                .orElseThrow(() -> new InvalidInputException(
+                        String.format("Topic with ID %d does not exist.", topicId)
+                ));
+        List<GeneratedQuestion> batch = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            batch.add(newQuestion(topic, difficultyLevel, nextSeed()));
         }
-        int answer = a - b;
-        String questionText = a + " - " + b + " = ?";
-        String solutionSteps = QuestionAlgorithmsFunctions.simplifySubtraction(a, b, answer);
-        return saveQuestion(questionText, solutionSteps, String.valueOf(answer), topic, difficulty);
-    }
-
-    private GeneratedQuestion createMultiplicationQuestion(Topic topic, DifficultyLevel difficulty) {
-        int[] range = getRangeForDifficulty(difficulty);
-        int a = getRandomNumber(range);
-        int b = getRandomNumber(range);
-        int answer = a * b;
-        String questionText = a + " × " + b + " = ?";
-        String solutionSteps = QuestionAlgorithmsFunctions.simplifyMultiplication(a, b, answer);
-        return saveQuestion(questionText, solutionSteps, String.valueOf(answer), topic, difficulty);
-    }
-
-    private GeneratedQuestion createDivisionQuestion(Topic topic, DifficultyLevel difficulty) {
-        int[] range = getRangeForDifficulty(difficulty);
-        int b;
-        int a;
-        do {
-            b = getRandomNumber(range);
-        } while (b == 0);
-        int multiplier = getRandomNumber(range);
-        a = b * multiplier;
-        int answer = a / b;
-        String questionText = a + " ÷ " + b + " = ?";
-        String solutionSteps = QuestionAlgorithmsFunctions.simplifyDivision(a, b, answer);
-        return saveQuestion(questionText, solutionSteps, String.valueOf(answer), topic, difficulty);
-    }
-
-    private GeneratedQuestion createFractionsQuestion(Topic topic, DifficultyLevel difficulty) {
-        int num1 = random.nextInt(9) + 1;
-        int den1 = random.nextInt(9) + 1;
-        int num2 = random.nextInt(9) + 1;
-        int den2 = random.nextInt(9) + 1;
-        int commonDen = den1 * den2;
-        int newNum1 = num1 * den2;
-        int newNum2 = num2 * den1;
-        int sumNum = newNum1 + newNum2;
-        String questionText = "(" + num1 + "/" + den1 + ") + (" + num2 + "/" + den2 + ") = ?";
-        String solutionSteps = QuestionAlgorithmsFunctions.simplifyFractions(num1, den1, num2, den2, sumNum, commonDen);
-        String correctAnswer = sumNum + "/" + commonDen;
-        Double correctAnswerDouble = 0.0;
-        System.out.println("correct answer String"+correctAnswer);
-        return saveQuestion(questionText, solutionSteps, correctAnswer, topic, difficulty);
-    }
-
-    private GeneratedQuestion createRectangleQuestion(Topic topic, DifficultyLevel difficulty) {
-        int length = getRandomNumber(new int[]{1, 20});
-        int width = getRandomNumber(new int[]{1, 20});
-        int area = length * width;
-        int perimeter = 2 * (length + width);
-        String questionText = "Rectangle with length " + length + " and width " + width + ". Find its area and perimeter.";
-        String solutionSteps = QuestionAlgorithmsFunctions.simplifyRectangle(length, width, area, perimeter);
-        String correctAnswer = "Area: " + area + ", Perimeter: " + perimeter;
-        System.out.println(correctAnswer);
-        return saveQuestion(questionText, solutionSteps, correctAnswer, topic, difficulty);
-    }
-
-    private GeneratedQuestion createCircleQuestion(Topic topic, DifficultyLevel difficulty) {
-        int radius = getRandomNumber(new int[]{1, 10});
-        double pi = 3.14;
-        double area = pi * radius * radius;
-        double circumference = 2 * pi * radius;
-        String questionText = "Circle with radius " + radius + ". Find its area and circumference.";
-        String solutionSteps = QuestionAlgorithmsFunctions.simplifyCircle(radius, area, circumference);
-        String correctAnswer = "Area: " + String.format("%.2f", area) + ", Circumference: " + String.format("%.2f", circumference);
-        System.out.println(correctAnswer);
-        return saveQuestion(questionText, solutionSteps, correctAnswer, topic, difficulty);
+        List<GeneratedQuestion> saved = questionRepository.saveAll(batch);
+        saved.forEach(this::hydrate);
+        return saved;
     }
 
-    private GeneratedQuestion createTriangleQuestion(Topic topic, DifficultyLevel difficulty) {
-        int base = getRandomNumber(new int[]{1, 20});
-        int height = getRandomNumber(new int[]{1, 20});
-        double area = 0.5 * base * height;
-        double hypotenuse = Math.sqrt(base * base + height * height);
-        String questionText = "Right triangle with base " + base + " and height " + height + ". Find its area and hypotenuse.";
-        String solutionSteps = QuestionAlgorithmsFunctions.simplifyTriangle(base, height, area, hypotenuse);
-        String correctAnswer = "Area: " + String.format("%.2f", area) + ", Hypotenuse: " + String.format("%.2f", hypotenuse);
-        System.out.println(correctAnswer);
-        return saveQuestion(questionText, solutionSteps, correctAnswer, topic, difficulty);
+    /**
+     * Rebuilds the exact question encoded by a stateless question token (same seed → same
+     * operands, answer and steps). The result is not persisted.
+     */
+    public GeneratedQuestion buildFromSeed(Long topicId, DifficultyLevel difficultyLevel, long seed) {
+        Topic topic = topicId != null ? topicRepository.findById(topicId).orElse(null) : null;
+        return hydrate(newQuestion(topic, difficultyLevel, seed));
     }
 
-    private GeneratedQuestion createPolygonQuestion(Topic topic, DifficultyLevel difficulty) {
-        int side = getRandomNumber(new int[]{1, 10});
-        double apothem = side / (2 * Math.tan(Math.PI / 5));
-        double area = (5 * side * apothem) / 2;
-        String questionText = "Regular pentagon with side length " + side + ". Find its approximate area.";
-        String solutionSteps = QuestionAlgorithmsFunctions.simplifyPolygon(side, apothem, area);
-        String correctAnswer = "Approximate Area: " + String.format("%.2f", area);
-        System.out.println(correctAnswer);
-        return saveQuestion(questionText, solutionSteps, correctAnswer, topic, difficulty);
+    public GeneratedQuestion persist(GeneratedQuestion question) {
+        if (storeSeedOnly && question.getSeed() != null) {
+            clearText(question);
+        }
+        return hydrate(questionRepository.save(question));
     }
 
-    private int[] getRangeForDifficulty(DifficultyLevel difficulty) {
-        return switch (difficulty) {
-            case BASIC -> new int[]{1, 10};
-            case EASY -> new int[]{1, 30};
-            case MEDIUM -> new int[]{1, 100};
-            case ADVANCED -> new int[]{1, 1000};
-            case EXPERT -> new int[]{1, 9999};
-        };
+    public GeneratedQuestion getQuestionById(Long questionId) throws InvalidInputException {
+        return questionRepository.findById(questionId)
+                .map(this::hydrate)
+                .orElseThrow(() -> new InvalidInputException(
+                        String.format("Question with ID %d does not exist.", questionId)
+                ));
     }
 
-    private int getRandomNumber(int[] range) {
-        return random.nextInt(range[1] - range[0] + 1) + range[0];
+    /**
+     * Fills in text, answer and steps of a seed-only question. Only call this on detached
+     * entities (outside a transaction), otherwise the regenerated text would be flushed back.
+     */
+    public GeneratedQuestion hydrate(GeneratedQuestion question) {
+        if (question.getQuestionText() == null && question.getSeed() != null) {
+            QuestionEngine.QuestionContent content = QuestionEngine.generate(
+                    question.getTopicType(), question.getDifficultyLevel(), question.getSeed());
+            question.setQuestionText(content.questionText());
+            question.setSolutionSteps(content.solutionSteps());
+            question.setCorrectAnswer(content.correctAnswer());
+        }
+        return question;
     }
 
-    private GeneratedQuestion saveQuestion(
-            String questionText,
-            String solutionSteps,
-            String correctAnswer,
-            Topic topic,
-            DifficultyLevel difficulty
-    ) {
-        GeneratedQuestion generated = GeneratedQuestion.builder()
-                .questionText(questionText)
-                .solutionSteps(solutionSteps)
-                .correctAnswer(correctAnswer)
+    private GeneratedQuestion newQuestion(Topic topic, DifficultyLevel difficulty, long seed) {
+        GeneratedQuestion question = GeneratedQuestion.builder()
+                .seed(seed)
+                .topicType(TopicType.fromTopicName(topic != null ? topic.getName() : null))
                 .topic(topic)
                 .difficultyLevel(difficulty)
                 .build();
-        return questionRepository.save(generated);
+        return storeSeedOnly ? question : hydrate(question);
     }
 
-    public GeneratedQuestion getQuestionById(Long questionId) throws InvalidInputException {
-        return questionRepository.findById(questionId)
-                .orElseThrow(() -> new InvalidInputException(
-                        String.format("Question with ID %d does not exist.", questionId)
-                ));
+    private static void clearText(GeneratedQuestion question) {
+        question.setQuestionText(null);
+        question.setSolutionSteps(null);
+        question.setCorrectAnswer(null);
     }
-}
 
+    private static long nextSeed() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+}
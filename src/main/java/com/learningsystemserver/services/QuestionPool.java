@@ -0,0 +1,160 @@
+package com.learningsystemserver.services;
+
+import com.learningsystemserver.entities.DifficultyLevel;
+import com.learningsystemserver.entities.GeneratedQuestion;
+import com.learningsystemserver.exceptions.InvalidInputException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ready-to-serve questions per topic × difficulty, persisted ahead of time in batches.
+ * /api/questions/generate polls the pool; a background refill tops it up whenever it
+ * drops below the low watermark. Falls back to synchronous generation on a miss.
+ * Pools exist only for topics that exist; any other id is generated inline, so made-up ids
+ * cannot grow the pool map, the meter registry or the stored questions.
+ */
+@Slf4j
+@Component
+public class QuestionPool {
+
+    private final QuestionGeneratorService generator;
+    private final MeterRegistry meterRegistry;
+
+    private final boolean enabled;
+    private final int targetSize;
+    private final int lowWatermark;
+
+    private final Map<PoolKey, Pool> pools = new ConcurrentHashMap<>();
+    private final Set<PoolKey> refilling = ConcurrentHashMap.newKeySet();
+    private final ExecutorService refillExecutor;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter generated;
+
+    public QuestionPool(QuestionGeneratorService generator,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.question-pool.enabled:true}") boolean enabled,
+                        @Value("${app.question-pool.size:20}") int targetSize,
+                        @Value("${app.question-pool.low-watermark:5}") int lowWatermark,
+                        @Value("${app.question-pool.refill-parallelism:2}") int refillParallelism) {
+        this.generator = generator;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.targetSize = Math.max(1, targetSize);
+        this.lowWatermark = Math.min(Math.max(0, lowWatermark), this.targetSize - 1);
+
+        AtomicInteger threadNo = new AtomicInteger();
+        this.refillExecutor = Executors.newFixedThreadPool(Math.max(1, refillParallelism), r -> {
+            Thread t = new Thread(r, "question-pool-refill-" + threadNo.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        this.hits = Counter.builder("question.pool.hits")
+                .description("Generate requests served from the pool")
+                .register(meterRegistry);
+        this.misses = Counter.builder("question.pool.misses")
+                .description("Generate requests that had to build a question synchronously")
+                .register(meterRegistry);
+        this.generated = Counter.builder("question.pool.refill.generated")
+                .description("Questions pre-generated by background refills")
+                .register(meterRegistry);
+    }
+
+    /** Next question for the topic and difficulty: from the pool when possible, generated inline otherwise. */
+    public GeneratedQuestion take(Long topicId, DifficultyLevel difficulty) {
+        if (!enabled || topicId == null) {
+            return generator.generateQuestion(topicId, difficulty);
+        }
+
+        PoolKey key = new PoolKey(topicId, difficulty);
+        Pool pool = pools.get(key);
+        if (pool == null) {
+            if (!generator.topicExists(topicId)) {
+                return generator.generateQuestion(topicId, difficulty);
+            }
+            pool = pools.computeIfAbsent(key, this::newPool);
+        }
+
+        GeneratedQuestion question = pool.questions.poll();
+        if (question != null) {
+            pool.size.decrementAndGet();
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+
+        if (pool.size.get() <= lowWatermark) {
+            scheduleRefill(key, pool);
+        }
+        return question != null ? question : generator.generateQuestion(topicId, difficulty);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refillExecutor.shutdownNow();
+    }
+
+    // ---- internals ----
+
+    private Pool newPool(PoolKey key) {
+        Pool pool = new Pool();
+        pool.gauge = Gauge.builder("question.pool.size", pool.size, AtomicInteger::get)
+                .description("Questions ready to serve")
+                .tag("topicId", String.valueOf(key.topicId()))
+                .tag("difficulty", key.difficulty().name())
+                .register(meterRegistry);
+        return pool;
+    }
+
+    private void scheduleRefill(PoolKey key, Pool pool) {
+        if (!refilling.add(key)) return; // one refill per key at a time
+        try {
+            refillExecutor.execute(() -> {
+                try {
+                    int missing = targetSize - pool.size.get();
+                    if (missing <= 0) return;
+                    List<GeneratedQuestion> batch = generator.generateBatch(key.topicId(), key.difficulty(), missing);
+                    pool.questions.addAll(batch);
+                    pool.size.addAndGet(batch.size());
+                    generated.increment(batch.size());
+                } catch (InvalidInputException e) {
+                    // The topic was deleted: stop pooling it
+                    if (pools.remove(key, pool)) {
+                        meterRegistry.remove(pool.gauge);
+                    }
+                    log.debug("Dropping question pool (topicId={}, difficulty={}): {}",
+                            key.topicId(), key.difficulty(), e.getMessage());
+                } catch (Exception e) {
+                    log.warn("Question pool refill failed (topicId={}, difficulty={}): {}",
+                            key.topicId(), key.difficulty(), e.getMessage());
+                } finally {
+                    refilling.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refilling.remove(key);
+        }
+    }
+
+    private record PoolKey(Long topicId, DifficultyLevel difficulty) {}
+
+    private static final class Pool {
+        final Queue<GeneratedQuestion> questions = new ConcurrentLinkedQueue<>();
+        final AtomicInteger size = new AtomicInteger();
+        Gauge gauge;
+    }
+}
@@ -0,0 +1,189 @@
+package com.learningsystemserver.services;
+
+import com.learningsystemserver.entities.DifficultyLevel;
+import com.learningsystemserver.entities.RedeemedQuestionToken;
+import com.learningsystemserver.exceptions.InvalidInputException;
+import com.learningsystemserver.repositories.RedeemedQuestionTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Stateless question mode (app.questions.stateless-tokens.enabled).
+ * Instead of inserting a generated_questions row per "generate", the question's topic,
+ * difficulty and seed are returned to the client as a compact HMAC-SHA256 signed token.
+ * On submit the question is rebuilt from the token and only then persisted. Each token can be
+ * submitted once ({@link #redeem}); redeemed tokens are remembered until they expire.
+ *
+ * Token format: base64url(payload) + "." + base64url(hmac(payload)),
+ * payload = "v2|topicId|difficulty|seed|issuedAtEpochSeconds".
+ * The HMAC key is derived with HKDF from app.questions.stateless-tokens.secret (or
+ * security.jwt.secret when unset), so it is never the key that signs JWTs.
+ */
+@Slf4j
+@Service
+public class QuestionTokenService {
+
+    private static final String VERSION = "v2";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder B64 = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder B64_DECODER = Base64.getUrlDecoder();
+    private static final byte[] HKDF_INFO = "learning-system/question-token/v2".getBytes(StandardCharsets.UTF_8);
+
+    private final RedeemedQuestionTokenRepository redeemedRepository;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final SecretKeySpec key;
+
+    // Mac instances are not thread-safe
+    private final ThreadLocal<Mac> macs;
+
+    public QuestionTokenService(RedeemedQuestionTokenRepository redeemedRepository,
+                                @Value("${app.questions.stateless-tokens.enabled:false}") boolean enabled,
+                                @Value("${app.questions.stateless-tokens.ttl-hours:24}") long ttlHours,
+                                @Value("${app.questions.stateless-tokens.secret:${security.jwt.secret}}") String secret) {
+        this.redeemedRepository = redeemedRepository;
+        this.enabled = enabled;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.key = new SecretKeySpec(deriveKey(secret.getBytes(StandardCharsets.UTF_8)), ALGORITHM);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HMAC-SHA256 unavailable", e);
+            }
+        });
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String issue(Long topicId, DifficultyLevel difficulty, long seed) {
+        String payload = String.join("|",
+                VERSION,
+                topicId == null ? "" : topicId.toString(),
+                difficulty.name(),
+                Long.toString(seed),
+                Long.toString(Instant.now().getEpochSecond()));
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        return B64.encodeToString(payloadBytes) + "." + B64.encodeToString(sign(payloadBytes));
+    }
+
+    /**
+     * Verifies {@code token} and marks it used. A second submit of the same token is rejected,
+     * so one known-correct answer cannot be replayed to inflate accuracy.
+     */
+    public QuestionClaims redeem(String token) throws InvalidInputException {
+        QuestionClaims claims = verify(token);
+        try {
+            redeemedRepository.saveAndFlush(RedeemedQuestionToken.builder()
+                    .tokenHash(sha256Hex(token))
+                    .expiresAt(LocalDateTime.ofInstant(claims.issuedAt().plus(ttl), ZoneId.systemDefault()))
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            throw new InvalidInputException("Question token has already been used.");
+        }
+        return claims;
+    }
+
+    /** Signature, format and expiry check only; see {@link #redeem} for submits. */
+    public QuestionClaims verify(String token) throws InvalidInputException {
+        if (token == null || token.isBlank()) {
+            throw new InvalidInputException("Missing question token.");
+        }
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot == token.length() - 1) {
+            throw new InvalidInputException("Malformed question token.");
+        }
+
+        final byte[] payloadBytes;
+        final byte[] signature;
+        try {
+            payloadBytes = B64_DECODER.decode(token.substring(0, dot));
+            signature = B64_DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidInputException("Malformed question token.");
+        }
+        if (!MessageDigest.isEqual(sign(payloadBytes), signature)) {
+            throw new InvalidInputException("Invalid question token signature.");
+        }
+
+        String[] parts = new String(payloadBytes, StandardCharsets.UTF_8).split("\\|", -1);
+        if (parts.length != 5 || !VERSION.equals(parts[0])) {
+            throw new InvalidInputException("Unsupported question token.");
+        }
+        try {
+            Long topicId = parts[1].isEmpty() ? null : Long.valueOf(parts[1]);
+            DifficultyLevel difficulty = DifficultyLevel.valueOf(parts[2]);
+            long seed = Long.parseLong(parts[3]);
+            Instant issuedAt = Instant.ofEpochSecond(Long.parseLong(parts[4]));
+            if (issuedAt.plus(ttl).isBefore(Instant.now())) {
+                throw new InvalidInputException("Question token has expired.");
+            }
+            return new QuestionClaims(topicId, difficulty, seed, issuedAt);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidInputException("Malformed question token.");
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.questions.stateless-tokens.purge-interval-ms:3600000}",
+            fixedDelayString = "${app.questions.stateless-tokens.purge-interval-ms:3600000}"
+    )
+    public void purgeRedeemed() {
+        if (!enabled) return;
+        int purged = redeemedRepository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            log.debug("Purged {} expired redeemed question tokens", purged);
+        }
+    }
+
+    private byte[] sign(byte[] payload) {
+        Mac mac = macs.get();
+        mac.reset();
+        return mac.doFinal(payload);
+    }
+
+    // HKDF-SHA256 (RFC 5869) with a zero salt and a single output block
+    private static byte[] deriveKey(byte[] secret) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(new byte[32], ALGORITHM));
+            byte[] prk = mac.doFinal(secret);
+            mac.init(new SecretKeySpec(prk, ALGORITHM));
+            mac.update(HKDF_INFO);
+            mac.update((byte) 1);
+            return mac.doFinal();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 unavailable", e);
+        }
+    }
+
+    private static String sha256Hex(String token) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    public record QuestionClaims(Long topicId, DifficultyLevel difficulty, long seed, Instant issuedAt) {}
+}
@@ -0,0 +1,107 @@
+package com.learningsystemserver.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.learningsystemserver.entities.UserQuestionHistory;
+import com.learningsystemserver.repositories.UserQuestionHistoryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Last {@link #CAPACITY} outcomes per user × subtopic, packed into the low bits of a long
+ * (bit 0 = newest, 1 = correct). Entries live in a size/idle bounded cache and are warmed
+ * lazily from the database plus not-yet-written attempts, so the adaptive evaluation
+ * runs without touching user_question_history.
+ */
+@Component
+public class RecentAttemptWindow {
+
+    public static final int CAPACITY = 10;
+
+    private final UserQuestionHistoryRepository historyRepository;
+    private final HistoryWriteBehindQueue writeBehind;
+    private final Cache<Key, Ring> rings;
+
+    public RecentAttemptWindow(UserQuestionHistoryRepository historyRepository,
+                               HistoryWriteBehindQueue writeBehind,
+                               @Value("${app.adaptive.window-cache-size:100000}") long maxEntries,
+                               @Value("${app.adaptive.window-idle-minutes:360}") long idleMinutes) {
+        this.historyRepository = historyRepository;
+        this.writeBehind = writeBehind;
+        this.rings = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .build();
+    }
+
+    /**
+     * Appends an outcome that has not been persisted yet. If the surrounding transaction
+     * rolls back, the entry is dropped and re-warmed on next use.
+     */
+    public void append(Long userId, Long subtopicId, boolean correct) {
+        Key key = new Key(userId, subtopicId);
+        rings.get(key, this::warm).push(correct);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        rings.invalidate(key);
+                    }
+                }
+            });
+        }
+    }
+
+    /** Size, correct count and newest outcome of the current window, read atomically. */
+    public Stats stats(Long userId, Long subtopicId) {
+        return rings.get(new Key(userId, subtopicId), this::warm).stats();
+    }
+
+    // ---- internals ----
+
+    private Ring warm(Key key) {
+        Ring ring = new Ring();
+        List<UserQuestionHistory> fromDb = historyRepository
+                .findTop10ByUserIdAndQuestion_Topic_IdOrderByAttemptTimeDesc(key.userId(), key.subtopicId());
+        // Replay oldest first so the newest ends up in bit 0
+        for (int i = fromDb.size() - 1; i >= 0; i--) {
+            ring.push(fromDb.get(i).isCorrect());
+        }
+        // Queued attempts are newer than anything in the table
+        for (HistoryWriteBehindQueue.PendingAttempt p : writeBehind.pendingFor(key.userId(), key.subtopicId())) {
+            ring.push(p.correct());
+        }
+        return ring;
+    }
+
+    private record Key(Long userId, Long subtopicId) {}
+
+    public record Stats(int size, int correct, boolean lastCorrect) {
+        public double rate() {
+            return size == 0 ? 0.0 : correct / (double) size;
+        }
+    }
+
+    private static final class Ring {
+        private static final long MASK = (1L << CAPACITY) - 1;
+
+        private long bits;
+        private int size;
+
+        synchronized void push(boolean correct) {
+            bits = ((bits << 1) | (correct ? 1L : 0L)) & MASK;
+            if (size < CAPACITY) size++;
+        }
+
+        synchronized Stats stats() {
+            return new Stats(size, Long.bitCount(bits), (bits & 1L) != 0);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.learningsystemserver.services;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/** Topics a client can subscribe to on an SSE connection. */
+public enum SseChannel {
+
+    NOTIFICATIONS("notifications", "notification", false),
+    USER_DASHBOARD("userDashboard", "userDashboard", true),
+    ADMIN_DASHBOARD("adminDashboard", "adminDashboard", true);
+
+    private final String paramName;
+    private final String eventName;
+    // Snapshot channels carry whole documents: an unsent one is replaced by a newer one
+    private final boolean snapshot;
+
+    SseChannel(String paramName, String eventName, boolean snapshot) {
+        this.paramName = paramName;
+        this.eventName = eventName;
+        this.snapshot = snapshot;
+    }
+
+    public String paramName() {
+        return paramName;
+    }
+
+    public String eventName() {
+        return eventName;
+    }
+
+    public boolean isSnapshot() {
+        return snapshot;
+    }
+
+    /** Parses a comma separated channel list (case-insensitive); null or blank means none. */
+    public static Set<SseChannel> parse(String csv) {
+        Set<SseChannel> channels = EnumSet.noneOf(SseChannel.class);
+        if (csv == null) return channels;
+        for (String part : csv.split(",")) {
+            String name = part.trim().toLowerCase(Locale.ROOT);
+            if (name.isEmpty()) continue;
+            SseChannel match = null;
+            for (SseChannel c : values()) {
+                if (c.paramName.toLowerCase(Locale.ROOT).equals(name)) {
+                    match = c;
+                    break;
+                }
+            }
+            if (match == null) {
+                throw new IllegalArgumentException("Unknown SSE channel: " + part.trim());
+            }
+            channels.add(match);
+        }
+        return channels;
+    }
+}
@@ -0,0 +1,267 @@
+package com.learningsystemserver.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.catalina.connector.ClientAbortException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.AsyncRequestNotUsableException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single registry for every SSE connection (notifications and dashboards).
+ *
+ * Connections are keyed by username and a user may hold several at once (one per tab). Each
+ * connection subscribes to a set of {@link SseChannel}s, so one stream can carry notifications
+ * and dashboard snapshots together. All writes go through {@link SsePushExecutor}; one scheduled
+ * heartbeat keeps every idle connection alive through proxies and doubles as the liveness
+ * probe: a failed write evicts the connection at once, and one that has not completed a write
+ * for app.sse.idle-timeout-ms (stuck socket, push lane starved) is reaped. Connections also
+ * expire after app.sse.emitter-timeout-ms (EventSource reconnects by itself), and opening more
+ * than app.sse.max-connections-per-user closes that user's oldest one.
+ */
+@Slf4j
+@Component
+public class SseHub {
+
+    private final SsePushExecutor pushExecutor;
+    private final long emitterTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final int maxConnectionsPerUser;
+
+    private final Map<String, Set<Connection>> connections = new ConcurrentHashMap<>();
+    private final AtomicLong connectionSeq = new AtomicLong();
+
+    private final Map<SseChannel, AtomicInteger> openByChannel = new EnumMap<>(SseChannel.class);
+    private final Counter evictedIdle;
+    private final Counter evictedLimit;
+    private final Counter evictedFailed;
+
+    public SseHub(SsePushExecutor pushExecutor,
+                  MeterRegistry meterRegistry,
+                  @Value("${app.sse.emitter-timeout-ms:1800000}") long emitterTimeoutMillis,
+                  @Value("${app.sse.idle-timeout-ms:90000}") long idleTimeoutMillis,
+                  @Value("${app.sse.max-connections-per-user:5}") int maxConnectionsPerUser) {
+        this.pushExecutor = pushExecutor;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+
+        for (SseChannel channel : SseChannel.values()) {
+            AtomicInteger open = new AtomicInteger();
+            openByChannel.put(channel, open);
+            Gauge.builder("sse.connections", open, AtomicInteger::get)
+                    .description("Open SSE connections subscribed to a channel")
+                    .tag("channel", channel.paramName())
+                    .register(meterRegistry);
+        }
+        this.evictedIdle = evictedCounter(meterRegistry, "idle");
+        this.evictedLimit = evictedCounter(meterRegistry, "limit");
+        this.evictedFailed = evictedCounter(meterRegistry, "failed");
+    }
+
+    /** Opens a connection for {@code username} subscribed to {@code channels}. */
+    public SseEmitter connect(String username, Set<SseChannel> channels) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Set<SseChannel> subscribed = EnumSet.noneOf(SseChannel.class);
+        subscribed.addAll(channels);
+        Connection connection = new Connection(connectionSeq.incrementAndGet(), username, emitter, subscribed);
+
+        // Add inside compute so a concurrent remove cannot drop the set we are adding to
+        Set<Connection> userConnections = connections.compute(username, (k, set) -> {
+            Set<Connection> target = set != null ? set : ConcurrentHashMap.<Connection>newKeySet();
+            target.add(connection);
+            return target;
+        });
+        subscribed.forEach(c -> openByChannel.get(c).incrementAndGet());
+        pushExecutor.register(emitter, ex -> onFailure(connection, ex));
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onTimeout(() -> {
+            try { emitter.complete(); } catch (Exception ignore) {}
+            remove(connection);
+        });
+        enforceLimit(userConnections);
+        // Treat client aborts as normal disconnects, remove so we won't try again.
+        emitter.onError(ex -> onFailure(connection, ex));
+        return emitter;
+    }
+
+    /** Sends {@code data} on one channel to every connection of {@code username} subscribed to it. */
+    public void publish(String username, SseChannel channel, Object data) {
+        publish(username, channel, null, data);
+    }
+
+    /** As {@link #publish(String, SseChannel, Object)}, tagging the event with an SSE id (may be null). */
+    public void publish(String username, SseChannel channel, String eventId, Object data) {
+        Set<Connection> userConnections = connections.get(username);
+        if (userConnections == null) return;
+        for (Connection connection : userConnections) {
+            if (connection.channels().contains(channel)) {
+                send(connection.emitter(), channel, eventId, data);
+            }
+        }
+    }
+
+    /** Sends {@code data} to a single connection, e.g. the initial snapshot right after connect. */
+    public void send(SseEmitter emitter, SseChannel channel, Object data) {
+        send(emitter, channel, null, data);
+    }
+
+    public void send(SseEmitter emitter, SseChannel channel, String eventId, Object data) {
+        if (channel.isSnapshot() && eventId == null) {
+            pushExecutor.pushSnapshot(emitter, channel.eventName(), data);
+            return;
+        }
+        SseEmitter.SseEventBuilder event = SseEmitter.event();
+        if (eventId != null) {
+            event.id(eventId);
+        }
+        pushExecutor.push(emitter, event.name(channel.eventName()).data(data));
+    }
+
+    /** Sends a data-less event, e.g. a hint that the client must refetch. */
+    public void signal(SseEmitter emitter, String eventName) {
+        pushExecutor.push(emitter, SseEmitter.event().name(eventName).data(""));
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.sse.heartbeat-ms:25000}",
+            fixedDelayString = "${app.sse.heartbeat-ms:25000}"
+    )
+    public void heartbeat() {
+        for (Set<Connection> userConnections : connections.values()) {
+            for (Connection connection : userConnections) {
+                long idle = pushExecutor.millisSinceLastWrite(connection.emitter());
+                if (idle > idleTimeoutMillis) {
+                    log.debug("SSE connection idle for {} ms, closing: user={}", idle, connection.username());
+                    evictedIdle.increment();
+                    close(connection);
+                } else {
+                    pushExecutor.pushHeartbeat(connection.emitter());
+                }
+            }
+        }
+    }
+
+    // ---- internals ----
+
+    private void enforceLimit(Set<Connection> userConnections) {
+        int excess = userConnections.size() - maxConnectionsPerUser;
+        if (excess <= 0) return;
+        userConnections.stream()
+                .sorted(Comparator.comparingLong(Connection::seq))
+                .limit(excess)
+                .forEach(oldest -> {
+                    evictedLimit.increment();
+                    close(oldest);
+                });
+    }
+
+    private void close(Connection connection) {
+        try { connection.emitter().complete(); } catch (Exception ignore) {}
+        remove(connection);
+    }
+
+    private void remove(Connection connection) {
+        // Completion, timeout and error callbacks may all fire for the same connection
+        if (!connection.closed().compareAndSet(false, true)) return;
+        pushExecutor.release(connection.emitter());
+        connection.channels().forEach(c -> openByChannel.get(c).decrementAndGet());
+        connections.computeIfPresent(connection.username(), (k, set) -> {
+            set.remove(connection);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private static Counter evictedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("sse.connections.evicted")
+                .description("SSE connections closed by the server")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private void onFailure(Connection connection, Throwable e) {
+        if (isClientAbort(e)) {
+            // Quiet for expected disconnects
+            log.debug("SSE disconnected: user={}, cause={}", connection.username(), rootMessage(e));
+        } else {
+            // Unexpected write problem
+            log.warn("SSE push failed: user={}, cause={}", connection.username(), rootMessage(e));
+        }
+        if (!connection.closed().get()) {
+            evictedFailed.increment();
+        }
+        close(connection);
+    }
+
+    private static boolean isClientAbort(Throwable e) {
+        // unwrap
+        Throwable t = e;
+        while (t != null) {
+            if (t instanceof ClientAbortException) return true;
+            if (t instanceof AsyncRequestNotUsableException) return true;
+            if (t instanceof IOException) {
+                String msg = t.getMessage();
+                if (msg != null) {
+                    String m = msg.toLowerCase();
+                    if (m.contains("broken pipe") ||
+                            m.contains("connection reset") ||
+                            m.contains("aborted by the software") ||
+                            m.contains("async not usable") ||
+                            m.contains("pipe is being closed")) {
+                        return true;
+                    }
+                }
+            }
+            t = t.getCause();
+        }
+        return false;
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable t = e;
+        Throwable last = e;
+        while (t != null) {
+            last = t;
+            t = t.getCause();
+        }
+        return Objects.toString(last.getMessage(), last.getClass().getSimpleName());
+    }
+
+    // Identity semantics: two tabs of the same user are distinct connections
+    private static final class Connection {
+        private final long seq;
+        private final String username;
+        private final SseEmitter emitter;
+        private final Set<SseChannel> channels;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Connection(long seq, String username, SseEmitter emitter, Set<SseChannel> channels) {
+            this.seq = seq;
+            this.username = username;
+            this.emitter = emitter;
+            this.channels = channels;
+        }
+
+        long seq() { return seq; }
+        String username() { return username; }
+        SseEmitter emitter() { return emitter; }
+        Set<SseChannel> channels() { return channels; }
+        AtomicBoolean closed() { return closed; }
+    }
+}
@@ -0,0 +1,257 @@
+package com.learningsystemserver.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Writes SSE events on a bounded pool instead of the caller's thread.
+ *
+ * Each registered emitter has a lane: events for one emitter are sent one at a time, in order,
+ * and a lane occupies at most one pool slot however many events it has waiting. Snapshot events
+ * (whole dashboards) replace an unsent event of the same name, so a slow client only ever gets
+ * the latest one. If the pool queue is full the lane's events stay pending and go out with the
+ * next push to that emitter. {@link #complete} ends the stream after everything queued before it.
+ * A lane holding more than app.sse.push.max-pending-per-emitter events belongs to a client that
+ * is not reading; it is dropped and its failure callback runs, which completes the emitter.
+ */
+@Slf4j
+@Component
+public class SsePushExecutor {
+
+    // Heartbeats coalesce like snapshots; the key cannot clash with an event name
+    private static final String HEARTBEAT_KEY = ":heartbeat";
+
+    private final ThreadPoolExecutor executor;
+    private final Map<SseEmitter, Lane> lanes = new ConcurrentHashMap<>();
+    private final int maxPendingPerEmitter;
+
+    private final Counter superseded;
+    private final Counter rejected;
+    private final Counter overflowed;
+
+    public SsePushExecutor(MeterRegistry meterRegistry,
+                           @Value("${app.sse.push.threads:4}") int threads,
+                           @Value("${app.sse.push.queue-capacity:1000}") int queueCapacity,
+                           @Value("${app.sse.push.max-pending-per-emitter:1000}") int maxPendingPerEmitter) {
+        this.maxPendingPerEmitter = Math.max(1, maxPendingPerEmitter);
+        AtomicInteger threadNo = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "sse-push-" + threadNo.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("sse.push.queue.depth", executor, e -> e.getQueue().size())
+                .description("Emitter lanes waiting for a push thread")
+                .register(meterRegistry);
+        Gauge.builder("sse.push.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Push threads currently writing")
+                .register(meterRegistry);
+        this.superseded = Counter.builder("sse.push.superseded")
+                .description("Snapshot events replaced by a newer one before being sent")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("sse.push.rejected")
+                .description("Lane schedules rejected because the push queue was full")
+                .register(meterRegistry);
+        this.overflowed = Counter.builder("sse.push.overflowed")
+                .description("Emitters dropped because too many events were waiting for them")
+                .register(meterRegistry);
+    }
+
+    /** Starts tracking {@code emitter}; {@code onFailure} is called once if a send fails. */
+    public void register(SseEmitter emitter, Consumer<Throwable> onFailure) {
+        lanes.put(emitter, new Lane(emitter, onFailure));
+    }
+
+    /**
+     * Milliseconds since the last successful write to {@code emitter} (or since it was
+     * registered), or -1 if it is not registered.
+     */
+    public long millisSinceLastWrite(SseEmitter emitter) {
+        Lane lane = lanes.get(emitter);
+        return lane == null ? -1 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lane.lastWriteNanos);
+    }
+
+    /** Drops the emitter's lane and anything still pending for it. */
+    public void release(SseEmitter emitter) {
+        lanes.remove(emitter);
+    }
+
+    /** Queues a snapshot: an unsent event with the same name is replaced. */
+    public void pushSnapshot(SseEmitter emitter, String eventName, Object data) {
+        submit(emitter, SseEmitter.event().name(eventName).data(data), eventName);
+    }
+
+    /** Queues an event that must be delivered as is (never replaced). */
+    public void push(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        submit(emitter, event, null);
+    }
+
+    /** Queues a keepalive comment unless one is already waiting for this emitter. */
+    public void pushHeartbeat(SseEmitter emitter) {
+        submit(emitter, SseEmitter.event().comment("ping"), HEARTBEAT_KEY);
+    }
+
+    /** Completes {@code emitter} once the events queued before have been sent. */
+    public void complete(SseEmitter emitter) {
+        complete(emitter, null);
+    }
+
+    /** As {@link #complete(SseEmitter)}, completing with {@code error} when it is not null. */
+    public void complete(SseEmitter emitter, Throwable error) {
+        if (!enqueue(emitter, new Pending(null, null, true, error))) {
+            finish(emitter, error); // not registered (or already released): nothing to wait for
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(2, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        lanes.clear();
+    }
+
+    // ---- internals ----
+
+    private void submit(SseEmitter emitter, SseEmitter.SseEventBuilder event, String snapshotKey) {
+        enqueue(emitter, new Pending(event, snapshotKey, false, null));
+    }
+
+    private boolean enqueue(SseEmitter emitter, Pending pending) {
+        Lane lane = lanes.get(emitter);
+        if (lane == null) return false;
+        switch (lane.offer(pending)) {
+            case REPLACED -> superseded.increment();
+            case OVERFLOW -> {
+                if (lanes.remove(emitter, lane)) {
+                    overflowed.increment();
+                    lane.onFailure.accept(new IllegalStateException(
+                            "Client is not reading: more than " + maxPendingPerEmitter + " SSE events pending"));
+                }
+                return true;
+            }
+            case ADDED -> { }
+        }
+        if (lane.claim()) {
+            try {
+                executor.execute(lane);
+            } catch (RejectedExecutionException e) {
+                lane.unclaim();
+                rejected.increment();
+            }
+        }
+        return true;
+    }
+
+    private static void finish(SseEmitter emitter, Throwable error) {
+        try {
+            if (error != null) {
+                emitter.completeWithError(error);
+            } else {
+                emitter.complete();
+            }
+        } catch (Exception ignore) {
+            // already completed
+        }
+    }
+
+    private final class Lane implements Runnable {
+        private final SseEmitter emitter;
+        private final Consumer<Throwable> onFailure;
+        private final ArrayDeque<Pending> queue = new ArrayDeque<>();
+        private boolean scheduled;
+        private volatile long lastWriteNanos = System.nanoTime();
+
+        Lane(SseEmitter emitter, Consumer<Throwable> onFailure) {
+            this.emitter = emitter;
+            this.onFailure = onFailure;
+        }
+
+        synchronized Offer offer(Pending pending) {
+            String snapshotKey = pending.snapshotKey();
+            if (snapshotKey != null) {
+                for (Iterator<Pending> it = queue.iterator(); it.hasNext(); ) {
+                    if (snapshotKey.equals(it.next().snapshotKey())) {
+                        it.remove();
+                        queue.add(pending);
+                        return Offer.REPLACED;
+                    }
+                }
+            }
+            // The end-of-stream marker is always accepted, so a full lane can still be completed
+            if (!pending.completes() && queue.size() >= maxPendingPerEmitter) {
+                queue.clear();
+                return Offer.OVERFLOW;
+            }
+            queue.add(pending);
+            return Offer.ADDED;
+        }
+
+        synchronized boolean claim() {
+            if (scheduled || queue.isEmpty()) return false;
+            scheduled = true;
+            return true;
+        }
+
+        synchronized void unclaim() {
+            scheduled = false;
+        }
+
+        private synchronized Pending next() {
+            Pending next = queue.poll();
+            if (next == null) {
+                scheduled = false;
+            }
+            return next;
+        }
+
+        @Override
+        public void run() {
+            Pending pending;
+            while ((pending = next()) != null) {
+                if (lanes.get(emitter) != this) return; // released meanwhile
+                if (pending.completes()) {
+                    lanes.remove(emitter, this);
+                    finish(emitter, pending.error());
+                    return;
+                }
+                try {
+                    emitter.send(pending.event());
+                    lastWriteNanos = System.nanoTime();
+                } catch (Exception e) {
+                    lanes.remove(emitter, this);
+                    onFailure.accept(e);
+                    return;
+                }
+            }
+        }
+    }
+
+    private enum Offer { ADDED, REPLACED, OVERFLOW }
+
+    // completes: end of stream marker (event is null), completing with error if set
+    private record Pending(SseEmitter.SseEventBuilder event, String snapshotKey, boolean completes, Throwable error) {}
+}
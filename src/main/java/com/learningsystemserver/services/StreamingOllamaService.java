@@ -1,9 +1,16 @@
 package com.learningsystemserver.services;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learningsystemserver.utils.ChunkCoalescer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
@@ -11,10 +18,18 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.SocketException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
 
 @Slf4j
 @Service
@@ -22,6 +37,13 @@ public class StreamingOllamaService {
 
     private static final String OLLAMA_URL = "http://localhost:11434/api/generate";
     private static final String MODEL_NAME = "aya-expanse:8b";
+    private static final double TEMPERATURE = 0.6;
+    private static final double REPEAT_PENALTY = 1.2;
+    private static final List<String> STOP_SEQUENCES = List.of(
+            "Q:", "Question:", "שאלה:",
+            "Answer:", "A:",
+            "\nQ", "\nQuestion", "\nשאלה"
+    );
 
     private final OkHttpClient client = new OkHttpClient.Builder()
             .readTimeout(5, TimeUnit.MINUTES)
@@ -31,91 +53,244 @@ public class StreamingOllamaService {
 
     private final ObjectMapper mapper = new ObjectMapper();
 
+    private final OllamaAdmissionQueue admissionQueue;
+    private final ExplanationCache explanationCache;
+    private final SsePushExecutor pushExecutor;
+    private final int replayChunkChars;
+    private final int flushChars;
+    private final long flushMillis;
+    private final long emitterTimeoutMillis;
+    private final long heartbeatMillis;
+    // Open AI streams, for keepalives while they wait in the queue or the model is slow
+    private final Set<SseEmitter> openStreams = ConcurrentHashMap.newKeySet();
+    // Sends coalesced text whose flush-ms deadline passed while the model paused
+    private final ScheduledThreadPoolExecutor flushTimer;
+
+    // One upstream generation per distinct question; later askers subscribe to it
+    private final Map<String, Broadcast> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalesced;
+    private final Counter cancelled;
+    private final Counter savedTokens;
+    // Running mean of tokens per finished answer, used to estimate what a cancellation saved
+    private final AtomicLong finishedAnswers = new AtomicLong();
+    private final DoubleAdder finishedTokens = new DoubleAdder();
+    private final int expectedAnswerTokens;
+
+    public StreamingOllamaService(OllamaAdmissionQueue admissionQueue,
+                                  ExplanationCache explanationCache,
+                                  SsePushExecutor pushExecutor,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.ai.cache.replay-chunk-chars:64}") int replayChunkChars,
+                                  @Value("${app.ai.expected-answer-tokens:400}") int expectedAnswerTokens,
+                                  @Value("${app.ai.stream.flush-chars:64}") int flushChars,
+                                  @Value("${app.ai.stream.flush-ms:80}") long flushMillis,
+                                  @Value("${app.ai.stream.emitter-timeout-ms:600000}") long emitterTimeoutMillis,
+                                  @Value("${app.ai.stream.heartbeat-ms:15000}") long heartbeatMillis) {
+        this.admissionQueue = admissionQueue;
+        this.explanationCache = explanationCache;
+        this.pushExecutor = pushExecutor;
+        this.replayChunkChars = replayChunkChars;
+        this.flushChars = flushChars;
+        this.flushMillis = flushMillis;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        this.heartbeatMillis = heartbeatMillis;
+        this.flushTimer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "ai-stream-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        this.flushTimer.setRemoveOnCancelPolicy(true);
+        this.expectedAnswerTokens = expectedAnswerTokens;
+        this.coalesced = Counter.builder("ai.generations.coalesced")
+                .description("Requests that joined an identical generation already in flight")
+                .register(meterRegistry);
+        this.cancelled = Counter.builder("ai.generations.cancelled")
+                .description("Generations stopped because every client disconnected")
+                .register(meterRegistry);
+        this.savedTokens = Counter.builder("ai.generations.saved.tokens")
+                .description("Estimated tokens not generated thanks to cancellations")
+                .register(meterRegistry);
+    }
+
     /**
      * Stream a solution from Ollama, enforcing the answer language
      * according to the provided UI language ("he" / "en").
+     * Tokens are coalesced into chunk events per app.ai.stream.flush-chars / flush-ms (no text
+     * waits longer than flush-ms); each chunk carries its 1-based sequence number as the SSE id.
+     * Cached explanations are replayed immediately. If the same question is already being
+     * generated the caller joins that generation (chunks so far, then live ones); otherwise a
+     * new one waits its turn in {@link OllamaAdmissionQueue} (RejectedExecutionException when
+     * that queue is full). Streams end after app.ai.stream.emitter-timeout-ms and get a
+     * keepalive while idle (see {@link #heartbeat()}).
      */
-    public SseEmitter streamSolution(String questionText, String lang) {
+    public SseEmitter streamSolution(String username, String questionText, String lang) {
         final String effectiveLang = normalizeLang(lang); // default handled inside
-        SseEmitter emitter = new SseEmitter(0L);
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        // Every write goes through the emitter's push lane: in order, never on the Ollama worker
+        pushExecutor.register(emitter, e -> onWriteFailed(emitter, e));
+        openStreams.add(emitter);
+        emitter.onCompletion(() -> forget(emitter));
+        emitter.onTimeout(() -> {
+            forget(emitter);
+            safeComplete(emitter);
+        });
+        emitter.onError(e -> forget(emitter));
 
-        new Thread(() -> {
-            // ---------- Language-aware preamble ----------
-            String systemPreamble = buildSystemPrompt(effectiveLang);
+        ExplanationCache.Key cacheKey = explanationCache.keyFor(
+                MODEL_NAME, promptVersion(effectiveLang), effectiveLang, questionText);
+        while (true) {
+            String cached = explanationCache.get(cacheKey).orElse(null);
+            if (cached != null) {
+                replay(emitter, cached);
+                return emitter;
+            }
 
-            String finalPrompt;
-            if ("en".equalsIgnoreCase(effectiveLang)) {
-                finalPrompt =
-                        systemPreamble +
-                                "\n\nQuestion:\n" + (questionText == null ? "" : questionText) + "\n\nAnswer:";
-            } else {
-                // default Hebrew
-                finalPrompt =
-                        systemPreamble +
-                                "\n\nשאלה:\n" + (questionText == null ? "" : questionText) + "\n\nתשובה בעברית:";
-            }
-
-            // Request body (keep original knobs + stop tokens)
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("model", MODEL_NAME);
-            requestBody.put("prompt", finalPrompt);
-            requestBody.put("stream", true);
-            requestBody.put("temperature", 0.6);
-            requestBody.put("repeat_penalty", 1.2);
-            requestBody.put("stop", List.of(
-                    "Q:", "Question:", "שאלה:",
-                    "Answer:", "A:",
-                    "\nQ", "\nQuestion", "\nשאלה"
-            ));
-
-            final String bodyString;
+            Broadcast created = new Broadcast(cacheKey.hash());
+            Broadcast broadcast = inFlight.compute(cacheKey.hash(),
+                    (k, existing) -> existing != null && !existing.isFinished() ? existing : created);
+            if (broadcast != created) {
+                if (broadcast.subscribe(emitter)) {
+                    coalesced.increment();
+                    return emitter;
+                }
+                continue; // finished meanwhile: its answer is cached now
+            }
+
+            created.subscribe(emitter);
             try {
-                bodyString = mapper.writeValueAsString(requestBody);
-            } catch (Exception e) {
-                completeGracefullyOnClientAbort(emitter, e);
-                return;
+                created.ticket = admissionQueue.submit(username, created::queuePosition,
+                        () -> generate(created, questionText, effectiveLang, cacheKey));
+            } catch (RejectedExecutionException e) {
+                created.reject(emitter, e);
+                forget(emitter); // never handed to the client
+                throw e;
             }
+            return emitter;
+        }
+    }
 
-            Request req = new Request.Builder()
-                    .url(OLLAMA_URL)
-                    .post(RequestBody.create(bodyString, MediaType.parse("application/json")))
-                    .build();
+    private void generate(Broadcast broadcast, String questionText, String effectiveLang,
+                          ExplanationCache.Key cacheKey) {
+        if (!broadcast.start()) return;
 
-            try (Response resp = client.newCall(req).execute()) {
-                if (!resp.isSuccessful() || resp.body() == null) {
-                    throw new IOException("Bad response from Ollama: " + (resp != null ? resp.code() : "null"));
-                }
+        // ---------- Language-aware preamble ----------
+        String systemPreamble = buildSystemPrompt(effectiveLang);
 
-                try (BufferedReader br = new BufferedReader(new InputStreamReader(resp.body().byteStream()))) {
-                    String line;
-                    while ((line = br.readLine()) != null) {
-                        // Ollama returns JSON lines
-                        JsonNode node = mapper.readTree(line);
-                        if (node.has("response")) {
-                            String chunk = node.get("response").asText("");
-                            if (!chunk.isEmpty()) {
-                                sendChunk(emitter, chunk);
-                            }
-                        }
-                        boolean done = node.has("done") && node.get("done").asBoolean(false);
-                        if (done) {
-                            log.info("Done = true from model, finishing SSE.");
-                            break;
+        String finalPrompt;
+        if ("en".equalsIgnoreCase(effectiveLang)) {
+            finalPrompt =
+                    systemPreamble +
+                            "\n\nQuestion:\n" + (questionText == null ? "" : questionText) + "\n\nAnswer:";
+        } else {
+            // default Hebrew
+            finalPrompt =
+                    systemPreamble +
+                            "\n\nשאלה:\n" + (questionText == null ? "" : questionText) + "\n\nתשובה בעברית:";
+        }
+
+        // Request body (keep original knobs + stop tokens)
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", MODEL_NAME);
+        requestBody.put("prompt", finalPrompt);
+        requestBody.put("stream", true);
+        requestBody.put("temperature", TEMPERATURE);
+        requestBody.put("repeat_penalty", REPEAT_PENALTY);
+        requestBody.put("stop", STOP_SEQUENCES);
+
+        final String bodyString;
+        try {
+            bodyString = mapper.writeValueAsString(requestBody);
+        } catch (Exception e) {
+            broadcast.fail(e);
+            return;
+        }
+
+        Request req = new Request.Builder()
+                .url(OLLAMA_URL)
+                .post(RequestBody.create(bodyString, MediaType.parse("application/json")))
+                .build();
+
+        Call call = client.newCall(req);
+        if (!broadcast.bind(call)) return;
+
+        ChunkFlusher flusher = new ChunkFlusher(broadcast);
+        try (Response resp = call.execute()) {
+            if (!resp.isSuccessful() || resp.body() == null) {
+                throw new IOException("Bad response from Ollama: " + (resp != null ? resp.code() : "null"));
+            }
+
+            StringBuilder answer = new StringBuilder();
+            int tokens = 0;
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(resp.body().byteStream()))) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    // Ollama returns JSON lines
+                    JsonNode node = mapper.readTree(line);
+                    if (node.has("response")) {
+                        String chunk = node.get("response").asText("");
+                        if (!chunk.isEmpty()) {
+                            answer.append(chunk);
+                            tokens++;
+                            flusher.add(chunk);
                         }
                     }
+                    boolean done = node.has("done") && node.get("done").asBoolean(false);
+                    if (done) {
+                        log.info("Done = true from model, finishing SSE.");
+                        // Only complete answers are cached
+                        explanationCache.put(cacheKey, answer.toString());
+                        recordAnswerTokens(node.path("eval_count").asLong(tokens));
+                        break;
+                    }
                 }
+            }
+            flusher.finish();
 
-                safeSendDone(emitter);
-            } catch (Exception ex) {
-                completeGracefullyOnClientAbort(emitter, ex);
+            broadcast.finish();
+        } catch (Exception ex) {
+            flusher.close();
+            if (call.isCanceled()) {
+                log.debug("Generation cancelled, all clients disconnected.");
             }
-        }, "ollama-stream-thread").start();
+            broadcast.fail(ex);
+        }
+    }
 
-        return emitter;
+    @PreDestroy
+    public void shutdown() {
+        flushTimer.shutdownNow();
     }
 
     // ---- helpers ----
 
+    private void recordAnswerTokens(long tokens) {
+        finishedTokens.add(tokens);
+        finishedAnswers.incrementAndGet();
+    }
+
+    private void recordCancelled(int tokensProduced) {
+        long answers = finishedAnswers.get();
+        double expected = answers == 0 ? expectedAnswerTokens : finishedTokens.sum() / answers;
+        cancelled.increment();
+        savedTokens.increment(Math.max(0, expected - tokensProduced));
+    }
+
+    /** Sends a cached answer as chunks, back to back, then DONE. */
+    private void replay(SseEmitter emitter, String answer) {
+        int i = 0;
+        int seq = 0;
+        while (i < answer.length()) {
+            int end = Math.min(answer.length(), i + replayChunkChars);
+            // Never split a surrogate pair
+            if (end < answer.length() && Character.isHighSurrogate(answer.charAt(end - 1))) {
+                end++;
+            }
+            sendChunk(emitter, ++seq, encodeChunk(answer.substring(i, end)));
+            i = end;
+        }
+        sendDone(emitter);
+    }
+
     private String normalizeLang(String v) {
         if (v == null) return "he";
         v = v.trim().toLowerCase();
@@ -124,6 +299,12 @@ public class StreamingOllamaService {
         return "he";
     }
 
+    // Everything besides the question that shapes an answer; editing any of it retires cached answers
+    private String promptVersion(String lang) {
+        return buildSystemPrompt(lang) + "\ntemperature=" + TEMPERATURE + ";repeat_penalty=" + REPEAT_PENALTY
+                + ";stop=" + STOP_SEQUENCES;
+    }
+
     private String buildSystemPrompt(String lang) {
         if ("en".equalsIgnoreCase(lang)) {
             return String.join("\n",
@@ -144,37 +325,79 @@ public class StreamingOllamaService {
         );
     }
 
-    private void sendChunk(SseEmitter emitter, String partial) {
+    /** Non-blocking: an unsent older position is replaced by the new one. */
+    private void sendQueuePosition(SseEmitter emitter, int position) {
+        pushExecutor.pushSnapshot(emitter, "queue", Map.of("position", position));
+    }
+
+
+    /** The {"t": text} chunk payload, encoded once however many subscribers receive it. */
+    private String encodeChunk(String text) {
         try {
-            var payload = java.util.Map.of("t", partial);
-            emitter.send(SseEmitter.event()
-                    .id(String.valueOf(System.currentTimeMillis()))
-                    .name("chunk")
-                    .data(payload)); // Spring will JSON-encode this map
-        } catch (Exception e) {
-            completeGracefullyOnClientAbort(emitter, e);
+            return mapper.writeValueAsString(Map.of("t", text));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
         }
     }
 
-    private void safeSendDone(SseEmitter emitter) {
-        try {
-            emitter.send(SseEmitter.event().name("done").data("[DONE]"));
-        } catch (IOException e) {
-            if (isClientAbort(e)) {
-                log.debug("Client disconnected before DONE could be sent: {}", e.getMessage());
-            } else {
-                log.warn("Failed to send DONE event", e);
+    private void sendChunk(SseEmitter emitter, int seq, String json) {
+        pushExecutor.push(emitter, SseEmitter.event()
+                .id(String.valueOf(seq))
+                .name("chunk")
+                .data(json));
+    }
+
+    private void sendDone(SseEmitter emitter) {
+        pushExecutor.push(emitter, SseEmitter.event().name("done").data("[DONE]"));
+        pushExecutor.complete(emitter);
+    }
+
+    /**
+     * Keeps idle AI streams alive through proxies and probes them: a request still waiting in
+     * the queue (or a model that pauses) writes nothing, so without this a client that left is
+     * only noticed when its first chunk fails. A failed keepalive detaches the emitter, which
+     * cancels a queued generation nobody else is waiting for.
+     */
+    @Scheduled(
+            initialDelayString = "${app.ai.stream.heartbeat-ms:15000}",
+            fixedDelayString = "${app.ai.stream.heartbeat-ms:15000}"
+    )
+    public void heartbeat() {
+        for (SseEmitter emitter : openStreams) {
+            long idle = pushExecutor.millisSinceLastWrite(emitter);
+            if (idle < 0) {
+                openStreams.remove(emitter); // lane already gone
+            } else if (idle >= heartbeatMillis) {
+                pushExecutor.pushHeartbeat(emitter);
             }
-        } finally {
-            safeComplete(emitter);
         }
     }
 
+    private void forget(SseEmitter emitter) {
+        openStreams.remove(emitter);
+        pushExecutor.release(emitter);
+    }
+
+    // A lane write failed; the lane is gone, so complete directly
+    private void onWriteFailed(SseEmitter emitter, Throwable e) {
+        if (e instanceof Exception ex && isClientAbort(ex)) {
+            // Typical messages: "Broken pipe", "Connection reset by peer", etc.
+            log.debug("Client disconnected during SSE stream: {}", e.getMessage());
+        } else {
+            log.warn("Failed to write AI stream event: {}", e.getMessage());
+        }
+        openStreams.remove(emitter);
+        // Leave whatever generation it joined now, rather than when the container reports the error
+        for (Broadcast broadcast : inFlight.values()) {
+            broadcast.unsubscribe(emitter);
+        }
+        safeComplete(emitter);
+    }
+
     private void completeGracefullyOnClientAbort(SseEmitter emitter, Exception ex) {
         if (isClientAbort(ex)) {
-            // Typical messages: "Broken pipe", "Connection reset by peer", etc.
-            log.debug("Client disconnected during SSE stream: {}", ex.getMessage());
-            safeComplete(emitter);
+            log.debug("Generation ended by a disconnect: {}", ex.getMessage());
+            pushExecutor.complete(emitter);
         } else {
             log.error("Error in streaming SSE to Ollama", ex);
             safeCompleteWithError(emitter, ex);
@@ -198,10 +421,213 @@ public class StreamingOllamaService {
     }
 
     private void safeCompleteWithError(SseEmitter emitter, Exception ex) {
-        try {
-            // send a last error event only if the client is still connected
-            emitter.send(SseEmitter.event().name("error").data(ex.getMessage()));
-        } catch (Exception ignore) {}
-        try { emitter.completeWithError(ex); } catch (Exception ignore) {}
+        // A last error event (dropped if the client is already gone), then the error completion
+        pushExecutor.push(emitter, SseEmitter.event().name("error").data(String.valueOf(ex.getMessage())));
+        pushExecutor.complete(emitter, ex);
+    }
+
+    /**
+     * Feeds one generation's tokens to its broadcast through a {@link ChunkCoalescer}. While text
+     * is buffered a one-shot timer is armed for its deadline, so it goes out within flush-ms even
+     * if the model pauses (a slow step, the wait before done). Worker and timer serialize on this.
+     */
+    private final class ChunkFlusher {
+        private final Broadcast broadcast;
+        private final ChunkCoalescer coalescer = new ChunkCoalescer(flushChars, flushMillis);
+        private int tokens;
+        private ScheduledFuture<?> timer;
+        private boolean closed;
+
+        ChunkFlusher(Broadcast broadcast) {
+            this.broadcast = broadcast;
+        }
+
+        synchronized void add(String token) {
+            tokens++;
+            String frame = coalescer.offer(token, System.nanoTime());
+            if (frame != null) {
+                broadcast.publish(frame, tokens);
+            } else {
+                arm();
+            }
+        }
+
+        /** Sends whatever is still buffered and stops the timer. */
+        synchronized void finish() {
+            String rest = coalescer.drain();
+            if (rest != null) {
+                broadcast.publish(rest, tokens);
+            }
+            close();
+        }
+
+        synchronized void close() {
+            closed = true;
+            if (timer != null) {
+                timer.cancel(false);
+                timer = null;
+            }
+        }
+
+        private synchronized void flushDue() {
+            timer = null;
+            if (closed) return;
+            String frame = coalescer.poll(System.nanoTime());
+            if (frame != null) {
+                broadcast.publish(frame, tokens);
+            } else {
+                arm(); // a size flush moved the deadline; wait for the new one
+            }
+        }
+
+        private void arm() {
+            long deadline = coalescer.deadline();
+            if (timer != null || deadline == Long.MAX_VALUE) return;
+            try {
+                timer = flushTimer.schedule(this::flushDue, deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                // Shutting down: the text still goes out with the next token or at the end
+            }
+        }
+    }
+
+    /**
+     * Fan-out of one upstream generation. Encoded chunks are kept so a subscriber joining late
+     * first gets everything produced so far, then the live chunks, in order. Only the worker
+     * thread publishes. Catch-up and live chunks are queued on each subscriber's push lane under
+     * this lock (queueing never blocks; the socket writes happen on the push pool), so no chunk
+     * is skipped or doubled and a slow subscriber never holds up the upstream read.
+     */
+    private final class Broadcast {
+        private final String key;
+        private final List<String> chunks = new ArrayList<>();
+        private final List<SseEmitter> subscribers = new ArrayList<>();
+        private int lastPosition;
+        private int tokens;
+        private boolean started;
+        private boolean finished;
+        private volatile OllamaAdmissionQueue.Ticket ticket;
+        private Call call;
+
+        Broadcast(String key) {
+            this.key = key;
+        }
+
+        synchronized boolean isFinished() {
+            return finished;
+        }
+
+        /** Attaches the upstream call so it can be cancelled; false if everyone already left. */
+        synchronized boolean bind(Call upstream) {
+            if (finished) return false;
+            call = upstream;
+            return true;
+        }
+
+        /** Called by the worker; false if everyone left while it was queued. */
+        synchronized boolean start() {
+            if (finished) return false;
+            started = true;
+            return true;
+        }
+
+        /** Adds a subscriber and catches it up; false if the generation already ended. */
+        boolean subscribe(SseEmitter emitter) {
+            synchronized (this) {
+                if (finished) return false;
+                if (lastPosition > 0) {
+                    sendQueuePosition(emitter, lastPosition);
+                }
+                for (int i = 0; i < chunks.size(); i++) {
+                    sendChunk(emitter, i + 1, chunks.get(i));
+                }
+                subscribers.add(emitter);
+            }
+            emitter.onCompletion(() -> unsubscribe(emitter));
+            emitter.onTimeout(() -> unsubscribe(emitter));
+            emitter.onError(e -> unsubscribe(emitter));
+            return true;
+        }
+
+        void queuePosition(int position) {
+            for (SseEmitter emitter : snapshot(() -> lastPosition = position)) {
+                sendQueuePosition(emitter, position);
+            }
+        }
+
+        /** Queues one coalesced chunk; {@code tokensSoFar} feeds the saved-token estimate. */
+        void publish(String text, int tokensSoFar) {
+            String json = encodeChunk(text);
+            synchronized (this) {
+                chunks.add(json);
+                tokens = tokensSoFar;
+                for (SseEmitter emitter : subscribers) {
+                    sendChunk(emitter, chunks.size(), json);
+                }
+            }
+        }
+
+        void finish() {
+            for (SseEmitter emitter : end()) {
+                sendDone(emitter);
+            }
+        }
+
+        void fail(Exception ex) {
+            for (SseEmitter emitter : end()) {
+                completeGracefullyOnClientAbort(emitter, ex);
+            }
+        }
+
+        /** The queue refused the generation: the caller gets 429, anyone who joined meanwhile an error. */
+        void reject(SseEmitter caller, Exception ex) {
+            for (SseEmitter emitter : end()) {
+                if (emitter != caller) {
+                    safeCompleteWithError(emitter, ex);
+                }
+            }
+        }
+
+        private void unsubscribe(SseEmitter emitter) {
+            Call upstream;
+            int produced;
+            boolean running;
+            synchronized (this) {
+                if (!subscribers.remove(emitter) || !subscribers.isEmpty() || finished) return;
+                // Nobody is listening any more: stop the generation wherever it is
+                finished = true;
+                upstream = call;
+                produced = tokens;
+                running = started;
+            }
+            inFlight.remove(key, this);
+            if (!running) {
+                if (ticket != null) {
+                    ticket.cancel();
+                }
+            } else {
+                // Fails the blocking read on the worker, which frees its slot right away
+                if (upstream != null) {
+                    upstream.cancel();
+                }
+                recordCancelled(produced);
+            }
+        }
+
+        private synchronized List<SseEmitter> snapshot(Runnable update) {
+            update.run();
+            return List.copyOf(subscribers);
+        }
+
+        private List<SseEmitter> end() {
+            List<SseEmitter> all;
+            synchronized (this) {
+                finished = true;
+                all = List.copyOf(subscribers);
+                subscribers.clear();
+            }
+            inFlight.remove(key, this);
+            return all;
+        }
     }
 }
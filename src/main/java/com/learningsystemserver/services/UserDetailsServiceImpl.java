@@ -1,26 +1,60 @@
 package com.learningsystemserver.services;
 
-import com.learningsystemserver.entities.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.learningsystemserver.repositories.UserRepository;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+
+/**
+ * Runs on every authenticated request (JwtAuthenticationFilter), so principals are cached by the
+ * identifier they were looked up with (username or email) and loaded from the credential columns
+ * only. Anything that changes username, email, password or role must call {@link #evict}.
+ */
 @Service
-@RequiredArgsConstructor
 public class UserDetailsServiceImpl implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final Cache<String, UserPrincipal> principals;
+
+    public UserDetailsServiceImpl(UserRepository userRepository,
+                                  @Value("${security.user-cache.max-size:10000}") long maxSize,
+                                  @Value("${security.user-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
 
     @Override
     public UserDetails loadUserByUsername(String identifier) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(identifier)
-                .orElseGet(() -> userRepository.findByEmail(identifier)
+        UserPrincipal cached = principals.getIfPresent(identifier);
+        if (cached != null) {
+            return cached;
+        }
+
+        UserRepository.Credentials credentials = userRepository.findCredentialsByUsername(identifier)
+                .orElseGet(() -> userRepository.findCredentialsByEmail(identifier)
                         .orElseThrow(() -> new UsernameNotFoundException(
                                 "User not found by username or email: " + identifier)));
 
-        return new UserPrincipal(user);
+        UserPrincipal principal = UserPrincipal.from(credentials);
+        principals.put(identifier, principal);
+        return principal;
+    }
+
+    /** Drops cached principals for the given usernames/emails (nulls are ignored). */
+    public void evict(String... identifiers) {
+        for (String identifier : identifiers) {
+            if (identifier != null) {
+                principals.invalidate(identifier);
+            }
+        }
     }
 }
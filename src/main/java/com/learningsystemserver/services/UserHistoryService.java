@@ -1,8 +1,5 @@
 package com.learningsystemserver.services;
 
-import com.learningsystemserver.controllers.SseDashboardController;
-import com.learningsystemserver.dtos.responses.AdminDashboardResponse;
-import com.learningsystemserver.dtos.responses.UserDashboardResponse;
 import com.learningsystemserver.entities.GeneratedQuestion;
 import com.learningsystemserver.entities.Role;
 import com.learningsystemserver.entities.User;
@@ -12,6 +9,7 @@ import com.learningsystemserver.repositories.GeneratedQuestionRepository;
 import com.learningsystemserver.repositories.UserQuestionHistoryRepository;
 import com.learningsystemserver.repositories.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,7 +24,10 @@ public class UserHistoryService {
     private final UserQuestionHistoryRepository historyRepository;
 
     private final AdaptiveService adaptiveService;
-    private final DashboardService dashboardService;
+    private final RecentAttemptWindow recentAttempts;
+    private final HistoryWriteBehindQueue writeBehind;
+    private final DashboardStatsService statsService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public void logAttempt(Long userId, Long questionId, boolean correct, String userAnswer, Long timeTakenSeconds)
@@ -36,31 +37,39 @@ public class UserHistoryService {
         GeneratedQuestion question = questionRepository.findById(questionId)
                 .orElseThrow(() -> new RuntimeException("Question not found: " + questionId));
 
-        UserQuestionHistory history = UserQuestionHistory.builder()
-                .user(user)
-                .question(question)
-                .correct(correct)
-                .userAnswer(userAnswer)
-                .attemptTime(LocalDateTime.now())
-                .timeTakenSeconds(timeTakenSeconds)
-                .build();
+        Long topicId = question.getTopic() != null ? question.getTopic().getId() : null;
+        LocalDateTime attemptTime = LocalDateTime.now();
 
-        // 1) Save the attempt
-        historyRepository.save(history);
-        // 2) Make sure the just-saved attempt is visible to the next query (prevents timing lag)
-        historyRepository.flush();
-
-        // 3) Recompute adaptive difficulty for THIS subtopic immediately after the flush
-        adaptiveService.evaluateUserProgress(userId, question.getTopic().getId());
+        // 1) Record the outcome in the in-memory window the adaptive evaluation reads from,
+        //    so it never depends on the history row having reached the database
+        if (topicId != null) {
+            recentAttempts.append(userId, topicId, correct);
+        }
 
-        // 4) Push fresh dashboards (unchanged behavior)
-        UserDashboardResponse userData = dashboardService.buildUserDashboard(user.getUsername());
-        SseDashboardController.pushUserDash(user.getId(), userData);
+        // 2) Save the attempt (batched after commit in write-behind mode)
+        if (writeBehind.isEnabled()) {
+            writeBehind.enqueueAfterCommit(new HistoryWriteBehindQueue.PendingAttempt(
+                    userId, questionId, topicId, correct, userAnswer, attemptTime, timeTakenSeconds));
+        } else {
+            historyRepository.save(UserQuestionHistory.builder()
+                    .user(user)
+                    .question(question)
+                    .correct(correct)
+                    .userAnswer(userAnswer)
+                    .attemptTime(attemptTime)
+                    .timeTakenSeconds(timeTakenSeconds)
+                    .build());
+        }
+        // Keep the per-user/per-topic dashboard counters in the same transaction
+        statsService.recordAttempt(user, question.getTopic(), correct);
 
-        if (user.getRole() == Role.ADMIN) {
-            AdminDashboardResponse adminData = dashboardService.buildAdminDashboard();
-            SseDashboardController.pushAdminDash(user.getId(), adminData);
+        // 3) Recompute adaptive difficulty for THIS subtopic
+        if (topicId != null) {
+            adaptiveService.evaluateUserProgress(userId, topicId);
         }
+
+        // 4) Dashboards are rebuilt and pushed asynchronously after commit (see DashboardPushPipeline)
+        eventPublisher.publishEvent(new AttemptRecordedEvent(user.getId(), user.getUsername(), user.getRole() == Role.ADMIN));
     }
 
 }
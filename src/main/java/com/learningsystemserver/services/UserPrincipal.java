@@ -1,39 +1,51 @@
 package com.learningsystemserver.services;
 
 import com.learningsystemserver.entities.Role;
-import com.learningsystemserver.entities.User;
+import com.learningsystemserver.repositories.UserRepository;
 import lombok.AllArgsConstructor;
+import lombok.Getter;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
 import java.util.Collection;
-import java.util.Collections;
+import java.util.List;
 
+/**
+ * Immutable security principal built from the user's credential columns only, so it can be
+ * cached and shared between requests (see UserDetailsServiceImpl).
+ */
+@Getter
 @AllArgsConstructor
 public class UserPrincipal implements UserDetails {
 
-    private final User user;
+    private static final List<GrantedAuthority> ADMIN_AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_ADMIN"));
+    private static final List<GrantedAuthority> USER_AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+
+    private final Long id;
+    private final String username;
+    private final String email;
+    private final String password;
+    private final Role role;
+
+    public static UserPrincipal from(UserRepository.Credentials credentials) {
+        return new UserPrincipal(
+                credentials.getId(),
+                credentials.getUsername(),
+                credentials.getEmail(),
+                credentials.getPassword(),
+                credentials.getRole());
+    }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        if (user.getRole() == Role.ADMIN) {
-            return Collections.singletonList(new SimpleGrantedAuthority("ROLE_ADMIN"));
+        if (role == Role.ADMIN) {
+            return ADMIN_AUTHORITIES;
         } else {
-            return Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"));
+            return USER_AUTHORITIES;
         }
     }
 
-    @Override
-    public String getPassword() {
-        return user.getPassword();
-    }
-
-    @Override
-    public String getUsername() {
-        return user.getUsername();
-    }
-
     @Override
     public boolean isAccountNonExpired()  { return true; }
     @Override
@@ -43,4 +55,3 @@ public class UserPrincipal implements UserDetails {
     @Override
     public boolean isEnabled() { return true; }
 }
-
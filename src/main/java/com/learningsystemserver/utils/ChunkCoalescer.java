@@ -0,0 +1,62 @@
+package com.learningsystemserver.utils;
+
+/**
+ * Joins streamed tokens into fewer, larger SSE frames. A token is sent right away when the last
+ * frame went out at least {@code maxDelayMillis} ago (so the first token and slow streams are
+ * not held back); otherwise it is buffered until the buffer reaches {@code maxChars} or
+ * {@link #deadline()} passes. The caller enforces the deadline even if no further token arrives
+ * (a timer calling {@link #poll}), and calls {@link #drain()} when the stream ends.
+ * maxChars &lt;= 1 or maxDelayMillis &lt;= 0 sends every token as its own frame.
+ *
+ * Not thread-safe: callers serialize offer/poll/drain. Times are passed in
+ * ({@link System#nanoTime()}) so the policy can be replayed against recorded timings.
+ */
+public final class ChunkCoalescer {
+
+    private final int maxChars;
+    private final long maxDelayNanos;
+    private final StringBuilder pending = new StringBuilder();
+    private long lastFrameAt;
+    private boolean anyFrame;
+
+    public ChunkCoalescer(int maxChars, long maxDelayMillis) {
+        this.maxChars = maxChars;
+        this.maxDelayNanos = maxDelayMillis * 1_000_000L;
+    }
+
+    /** Buffers {@code token}; returns the frame to send now, or null to keep waiting. */
+    public String offer(String token, long nowNanos) {
+        pending.append(token);
+        if (pending.length() >= maxChars || isDue(nowNanos)) {
+            return take(nowNanos);
+        }
+        return null;
+    }
+
+    /** The buffered text if its deadline has passed, otherwise null. */
+    public String poll(long nowNanos) {
+        return !pending.isEmpty() && isDue(nowNanos) ? take(nowNanos) : null;
+    }
+
+    /** When the buffered text must go out ({@link System#nanoTime()} scale); Long.MAX_VALUE if nothing is buffered. */
+    public long deadline() {
+        return pending.isEmpty() ? Long.MAX_VALUE : lastFrameAt + maxDelayNanos;
+    }
+
+    /** Whatever is still buffered, or null if nothing is. */
+    public String drain() {
+        return pending.isEmpty() ? null : take(lastFrameAt);
+    }
+
+    private boolean isDue(long nowNanos) {
+        return !anyFrame || nowNanos - lastFrameAt >= maxDelayNanos;
+    }
+
+    private String take(long nowNanos) {
+        anyFrame = true;
+        lastFrameAt = nowNanos;
+        String frame = pending.toString();
+        pending.setLength(0);
+        return frame;
+    }
+}
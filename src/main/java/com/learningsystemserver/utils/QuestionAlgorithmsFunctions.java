@@ -1,5 +1,10 @@
 package com.learningsystemserver.utils;
 
+/**
+ * Solution steps for generated questions. The client translates these by matching the English
+ * sentences, so the wording (and spacing) must stay exactly as it is.
+ * Each method renders into the thread's reusable {@link StepText} buffer.
+ */
 public class QuestionAlgorithmsFunctions {
 
     //.......................................addition--------------------------------------------------------------------
@@ -10,43 +15,53 @@ public class QuestionAlgorithmsFunctions {
 
         int posA = Math.abs(a);
         int posB = Math.abs(b);
+        StringBuilder sb = StepText.acquire();
         if (posA < 10 && posB < 10 && answer <= 10) {
             // Fixed typo: "then" -> "them"
-            return "To add " + a + " and " + b + ", simply add them together to get " + answer + ".";
+            sb.append("To add ").append(a).append(" and ").append(b)
+                    .append(", simply add them together to get ").append(answer).append('.');
         } else if (posA < 10 && posB < 10) {
             int bigger = Math.max(a, b);
             int smaller = Math.min(a, b);
             int amountToTake = 10 - bigger;
             int remaining = smaller - amountToTake;
-            return "To add " + a + " and " + b + ", take " + amountToTake + " from " + smaller + " and add it to " + bigger + " to make 10, then add the remaining " + remaining + " to get " + answer + ".";
+            sb.append("To add ").append(a).append(" and ").append(b)
+                    .append(", take ").append(amountToTake).append(" from ").append(smaller)
+                    .append(" and add it to ").append(bigger)
+                    .append(" to make 10, then add the remaining ").append(remaining)
+                    .append(" to get ").append(answer).append('.');
         } else if (posA % 10 == 0 && posB < 10) {
-            return "To add " + a + " and " + b + ", simply add " + b + " to " + a + " to get " + answer + ".";
+            appendSimplyAdd(sb, a, b, b, a, answer);
         } else if (posB % 10 == 0 && posA < 10) {
-            return "To add " + a + " and " + b + ", simply add " + a + " to " + b + " to get " + answer + ".";
+            appendSimplyAdd(sb, a, b, a, b, answer);
         } else {
-            return simplifyMultiDigit(a, b, answer, aIsNegative, bIsNegative);
+            simplifyMultiDigit(sb, a, b, answer, aIsNegative, bIsNegative);
         }
+        return StepText.finish(sb);
     }
 
-    private static String simplifyMultiDigit(int a, int b, int answer, boolean aIsNegative, boolean bIsNegative) {
-        String aParts = getNumberParts(a, aIsNegative);
-        String bParts = getNumberParts(b, bIsNegative);
-
+    private static void simplifyMultiDigit(StringBuilder sb, int a, int b, int answer, boolean aIsNegative, boolean bIsNegative) {
         if ((Math.abs(a) < 10 && Math.abs(b) >= 10 && Math.abs(b) < 100) || (Math.abs(b) < 10 && Math.abs(a) >= 10 && Math.abs(a) < 100)) {
             if (Math.abs(a) < 10 && Math.abs(b) >= 10) {
                 if (Math.abs(b) + Math.abs(a) < 100) {
-                    return "To add " + a + " and " + b + ", simply add " + a + " to " + b + " to get " + answer + ".";
+                    appendSimplyAdd(sb, a, b, a, b, answer);
+                    return;
                 }
             }
             if (Math.abs(b) < 10 && Math.abs(a) >= 10) {
                 if (Math.abs(a) + Math.abs(b) < 100) {
-                    return "To add " + a + " and " + b + ", simply add " + b + " to " + a + " to get " + answer + ".";
+                    appendSimplyAdd(sb, a, b, b, a, answer);
+                    return;
                 }
             }
         }
 
-        String step1 = "Step 1: Write the numbers:\n" + aParts + "\n" + bParts;
-        String step2;
+        sb.append("Step 1: Write the numbers:\n");
+        appendNumberParts(sb, a, aIsNegative, " + ");
+        sb.append('\n');
+        appendNumberParts(sb, b, bIsNegative, " + ");
+        sb.append("\n\n");
+
         int aHundreds = (Math.abs(a) / 100) * 100;
         int aTens = ((Math.abs(a) % 100) / 10) * 10;
         int aOnes = Math.abs(a) % 10;
@@ -55,57 +70,54 @@ public class QuestionAlgorithmsFunctions {
         int bOnes = Math.abs(b) % 10;
 
         // Standardized "from the X we only have" to lowercase for easier translation matching
+        sb.append("Step 2: Combine the parts:\n");
         if (a >= 100 || b >= 100) {
-            step2 = "Step 2: Combine the parts:\n";
-            if(aOnes != 0 && bOnes != 0) { step2 += "Combine the ones: " + aOnes + " + " + bOnes + " = " + (aOnes + bOnes) + "\n";}else if(((aOnes + bOnes)==0)){}else {step2 += "From the ones we only have: "+Math.max(bOnes,aOnes)+"\n";}
-            if(aTens != 0 && bTens != 0) {step2 += "Combine the tens: " + aTens + " + " + bTens + " = " + (aTens + bTens) + "\n";}else if((aTens + bTens)==0){step2+="";}else {step2 += "From the tens we only have: "+Math.max(bTens,aTens)+"\n";}
-            if(aHundreds != 0 && bHundreds != 0) { step2 += "Combine the hundreds: " + aHundreds + " + " + bHundreds + " = " + (aHundreds + bHundreds) + "\n";}else if (((aHundreds + bHundreds)==0)){step2+="";}else {step2 += "From the hundreds we only have: "+Math.max(bHundreds,aHundreds)+"\n";}
+            if (aOnes != 0 && bOnes != 0) {
+                appendPartStep(sb, "Combine the ones: ", aOnes, " + ", bOnes, aOnes + bOnes);
+            } else if (aOnes + bOnes != 0) {
+                appendOnlyHave(sb, "ones", Math.max(bOnes, aOnes));
+            }
+            if (aTens != 0 && bTens != 0) {
+                appendPartStep(sb, "Combine the tens: ", aTens, " + ", bTens, aTens + bTens);
+            } else if (aTens + bTens != 0) {
+                appendOnlyHave(sb, "tens", Math.max(bTens, aTens));
+            }
+            if (aHundreds != 0 && bHundreds != 0) {
+                appendPartStep(sb, "Combine the hundreds: ", aHundreds, " + ", bHundreds, aHundreds + bHundreds);
+            } else if (aHundreds + bHundreds != 0) {
+                appendOnlyHave(sb, "hundreds", Math.max(bHundreds, aHundreds));
+            }
             int totalHundreds = aHundreds + bHundreds;
-            String step3 = "Step 3: Now combine all the parts: " + totalHundreds + " + " + (aTens + bTens) + " + " + (aOnes + bOnes) + " = " + answer;
-            return step1 + "\n\n" + step2 + "\n" + step3;
+            sb.append("\nStep 3: Now combine all the parts: ").append(totalHundreds)
+                    .append(" + ").append(aTens + bTens)
+                    .append(" + ").append(aOnes + bOnes)
+                    .append(" = ").append(answer);
         } else {
-            step2 = "Step 2: Combine the parts:\n";
-            if (aTens != 0 || bTens != 0) { step2 += "Combine the tens: " + aTens + " + " + bTens + " = " + (aTens + bTens) + "\n";}else if((aTens + bTens)==0){}else {step2 += "From the ones we only have: "+Math.max(bOnes,aOnes)+"\n";}
-            if (aOnes != 0 || bOnes != 0) {step2 += "Combine the ones: " + aOnes + " + " + bOnes + " = " + (aOnes + bOnes) + "\n";}else if((aOnes + bOnes)==0){step2+="";}else {step2 += "From the tens we only have: "+Math.max(bTens,aOnes)+"\n";}
+            if (aTens != 0 || bTens != 0) {
+                appendPartStep(sb, "Combine the tens: ", aTens, " + ", bTens, aTens + bTens);
+            } else if (aTens + bTens != 0) {
+                appendOnlyHave(sb, "ones", Math.max(bOnes, aOnes));
+            }
+            if (aOnes != 0 || bOnes != 0) {
+                appendPartStep(sb, "Combine the ones: ", aOnes, " + ", bOnes, aOnes + bOnes);
+            } else if (aOnes + bOnes != 0) {
+                appendOnlyHave(sb, "tens", Math.max(bTens, aOnes));
+            }
 
             int totalOnes = aOnes + bOnes;
             int totalTens = aTens + bTens;
-            String step3 = "Step 3: Now combine all the parts: " + totalTens + " + " + totalOnes + " = " + answer;
-            return step1 + "\n\n" + step2 + "\n" + step3;
+            sb.append("\nStep 3: Now combine all the parts: ").append(totalTens)
+                    .append(" + ").append(totalOnes)
+                    .append(" = ").append(answer);
         }
     }
 
-    private static String getNumberParts(int num, boolean isNegative) {
-        int hundreds = (Math.abs(num) / 100) * 100;
-        int tens = ((Math.abs(num) % 100) / 10) * 10;
-        int ones = Math.abs(num) % 10;
-
-        String sign = isNegative? "-" : "";
-        String hundredsString = hundreds > 0? hundreds + " (hundreds)" : "";
-        String tensString = tens > 0? tens + " (tens)" : "";
-        String onesString = ones > 0? ones + " (ones)" : "";
-
-        String result = sign + Math.abs(num) + " = ";
-        if (!hundredsString.isEmpty()) {
-            result += hundredsString;
-        }
-        if (!tensString.isEmpty()) {
-            if (!hundredsString.isEmpty()) {
-                result += " + ";
-            }
-            result += tensString;
-        }
-        if (!onesString.isEmpty()) {
-            if (!hundredsString.isEmpty() ||!tensString.isEmpty()) {
-                result += " + ";
-            }
-            result += onesString;
-        }
-
-        return result;
+    private static void appendSimplyAdd(StringBuilder sb, int a, int b, int addend, int to, int answer) {
+        sb.append("To add ").append(a).append(" and ").append(b)
+                .append(", simply add ").append(addend).append(" to ").append(to)
+                .append(" to get ").append(answer).append('.');
     }
 
-
     //.......................................subtraction Simplification................................................................
     public static String simplifySubtraction(int a, int b, int answer) {
         boolean aIsNegative = a < 0;
@@ -113,46 +125,54 @@ public class QuestionAlgorithmsFunctions {
 
         int posA = Math.abs(a);
         int posB = Math.abs(b);
+        StringBuilder sb = StepText.acquire();
         if (posA < 10 && posB < 10 && answer <= 10) {
-            return "To subtract " + b + " from " + a + ", simply subtract and then you have " + answer + ".";
+            sb.append("To subtract ").append(b).append(" from ").append(a)
+                    .append(", simply subtract and then you have ").append(answer).append('.');
         } else if (posA < 10 && posB < 10) {
             int bigger = Math.max(a, b);
             int smaller = Math.min(a, b);
             int amountToTake = 10 - bigger;
             int remaining = smaller - amountToTake;
             // Fixed typo: "subtract a in b" -> "subtract b from a"
-            return "To subtract " + b + " from " + a + ", take " + amountToTake + " from " + smaller + " and subtract it from " + bigger + " to make 10, then add the remaining " + remaining + " to get " + answer + ".";
+            sb.append("To subtract ").append(b).append(" from ").append(a)
+                    .append(", take ").append(amountToTake).append(" from ").append(smaller)
+                    .append(" and subtract it from ").append(bigger)
+                    .append(" to make 10, then add the remaining ").append(remaining)
+                    .append(" to get ").append(answer).append('.');
         } else if (posA % 10 == 0 && posB < 10) {
-            return "To subtract " + b + " from " + a + ", simply subtract " + b + " from " + a + " to get " + answer + ".";
+            appendSimplySubtract(sb, b, a, answer);
         } else if (posB % 10 == 0 && posA < 10) {
             // Fixed typo: "subtract a in b" -> "subtract a from b"
-            return "To subtract " + a + " from " + b + ", simply subtract " + a + " from " + b + " to get " + answer + ".";
+            appendSimplySubtract(sb, a, b, answer);
         } else {
-            return simplifyMultiDigitSub(a, b, answer, aIsNegative, bIsNegative);
+            simplifyMultiDigitSub(sb, a, b, answer, aIsNegative, bIsNegative);
         }
+        return StepText.finish(sb);
     }
 
-    private static String simplifyMultiDigitSub(int a, int b, int answer, boolean aIsNegative, boolean bIsNegative) {
-        String aParts = getNumberPartsSub(a, aIsNegative);
-        String bParts = getNumberPartsSub(b, bIsNegative);
-
+    private static void simplifyMultiDigitSub(StringBuilder sb, int a, int b, int answer, boolean aIsNegative, boolean bIsNegative) {
         if ((Math.abs(a) < 10 && Math.abs(b) >= 10 && Math.abs(b) < 100) || (Math.abs(b) < 10 && Math.abs(a) >= 10 && Math.abs(a) < 100)) {
             if (Math.abs(a) < 10 && Math.abs(b) >= 10) {
                 if (Math.abs(b) + Math.abs(a) < 100) {
-                    // Fixed phrasing
-                    return "To subtract " + b + " from " + a + ", simply subtract " + b + " from " + a + " to get " + answer + ".";
+                    appendSimplySubtract(sb, b, a, answer);
+                    return;
                 }
             }
             if (Math.abs(b) < 10 && Math.abs(a) >= 10) {
                 if (Math.abs(a) + Math.abs(b) < 100) {
-                    // Fixed phrasing
-                    return "To subtract " + b + " from " + a + ", simply subtract " + b + " from " + a + " to get " + answer + ".";
+                    appendSimplySubtract(sb, b, a, answer);
+                    return;
                 }
             }
         }
 
-        String step1 = "Step 1: Write the numbers:\n" + aParts + "\n" + bParts;
-        String step2;
+        sb.append("Step 1: Write the numbers:\n");
+        appendNumberParts(sb, a, aIsNegative, " and ");
+        sb.append('\n');
+        appendNumberParts(sb, b, bIsNegative, " and ");
+        sb.append("\n\n");
+
         int aHundreds = (Math.abs(a) / 100) * 100;
         int aTens = ((Math.abs(a) % 100) / 10) * 10;
         int aOnes = Math.abs(a) % 10;
@@ -161,68 +181,107 @@ public class QuestionAlgorithmsFunctions {
         int bOnes = Math.abs(b) % 10;
 
         // Standardized "from the X we only have"
+        sb.append("Step 2: subtract the parts:\n");
         if (a >= 100 || b >= 100) {
-            step2 = "Step 2: subtract the parts:\n";
-            if(aOnes != 0 && bOnes != 0) { step2 += "subtract the ones: " + aOnes + " - " + bOnes + " = " + (aOnes - bOnes) + "\n";}else if(((aOnes - bOnes)==0)){}else {step2 += "From the ones we only have: "+Math.max(bOnes,aOnes)+"\n";}
-            if(aTens != 0 && bTens != 0) {step2 += "subtract the tens: " + aTens + " - " + bTens + " = " + (aTens - bTens) + "\n";}else if((aTens - bTens)==0){step2+="";}else {step2 += "From the tens we only have: "+Math.max(bTens,aTens)+"\n";}
-            if(aHundreds != 0 && bHundreds != 0) { step2 += "subtract the hundreds: " + aHundreds + " - " + bHundreds + " = " + (aHundreds - bHundreds) + "\n";}else if (((aHundreds - bHundreds)==0)){step2+="";}else {step2 += "From the hundreds we only have: "+Math.max(bHundreds,aHundreds)+"\n";}
+            if (aOnes != 0 && bOnes != 0) {
+                appendPartStep(sb, "subtract the ones: ", aOnes, " - ", bOnes, aOnes - bOnes);
+            } else if (aOnes - bOnes != 0) {
+                appendOnlyHave(sb, "ones", Math.max(bOnes, aOnes));
+            }
+            if (aTens != 0 && bTens != 0) {
+                appendPartStep(sb, "subtract the tens: ", aTens, " - ", bTens, aTens - bTens);
+            } else if (aTens - bTens != 0) {
+                appendOnlyHave(sb, "tens", Math.max(bTens, aTens));
+            }
+            if (aHundreds != 0 && bHundreds != 0) {
+                appendPartStep(sb, "subtract the hundreds: ", aHundreds, " - ", bHundreds, aHundreds - bHundreds);
+            } else if (aHundreds - bHundreds != 0) {
+                appendOnlyHave(sb, "hundreds", Math.max(bHundreds, aHundreds));
+            }
             int totalHundreds = aHundreds + bHundreds;
-            String step3 = "Step 3: Now subtract all the parts: " + totalHundreds + " - " + (aTens - bTens) + " - " + (aOnes - bOnes) + " = " + answer;
-            return step1 + "\n\n" + step2 + "\n" + step3;
+            sb.append("\nStep 3: Now subtract all the parts: ").append(totalHundreds)
+                    .append(" - ").append(aTens - bTens)
+                    .append(" - ").append(aOnes - bOnes)
+                    .append(" = ").append(answer);
         } else {
-            step2 = "Step 2: subtract the parts:\n";
-            if (aTens != 0 || bTens != 0) { step2 += "subtract the tens: " + aTens + " - " + bTens + " = " + (aTens - bTens) + "\n";}else if((aTens - bTens)==0){}else {step2 += "From the ones we only have: "+Math.max(bOnes,aOnes)+"\n";}
-            if (aOnes != 0 || bOnes != 0) {step2 += "subtract the ones: " + aOnes + " - " + bOnes + " = " + (aOnes - bOnes) + "\n";}else if((aOnes - bOnes)==0){step2+="";}else {step2 += "From the tens we only have: "+Math.max(bTens,aOnes)+"\n";}
+            if (aTens != 0 || bTens != 0) {
+                appendPartStep(sb, "subtract the tens: ", aTens, " - ", bTens, aTens - bTens);
+            } else if (aTens - bTens != 0) {
+                appendOnlyHave(sb, "ones", Math.max(bOnes, aOnes));
+            }
+            if (aOnes != 0 || bOnes != 0) {
+                appendPartStep(sb, "subtract the ones: ", aOnes, " - ", bOnes, aOnes - bOnes);
+            } else if (aOnes - bOnes != 0) {
+                appendOnlyHave(sb, "tens", Math.max(bTens, aOnes));
+            }
 
             int totalOnes = aOnes - bOnes;
             int totalTens = aTens - bTens;
-            String step3 = "Step 3: Now subtract all the parts: " + totalTens + " - " + totalOnes + " = " + answer;
-            return step1 + "\n\n" + step2 + "\n" + step3;
+            sb.append("\nStep 3: Now subtract all the parts: ").append(totalTens)
+                    .append(" - ").append(totalOnes)
+                    .append(" = ").append(answer);
         }
     }
 
-    private static String getNumberPartsSub(int num, boolean isNegative) {
+    private static void appendSimplySubtract(StringBuilder sb, int subtrahend, int from, int answer) {
+        sb.append("To subtract ").append(subtrahend).append(" from ").append(from)
+                .append(", simply subtract ").append(subtrahend).append(" from ").append(from)
+                .append(" to get ").append(answer).append('.');
+    }
+
+    //.......................................Shared step pieces................................................................
+
+    // "123 = 100 (hundreds)<sep>20 (tens)<sep>3 (ones)"; addition joins with " + ", subtraction with " and "
+    private static void appendNumberParts(StringBuilder sb, int num, boolean isNegative, String separator) {
         int hundreds = (Math.abs(num) / 100) * 100;
         int tens = ((Math.abs(num) % 100) / 10) * 10;
         int ones = Math.abs(num) % 10;
 
-        String sign = isNegative? "-" : "";
-        String hundredsString = hundreds > 0? hundreds + " (hundreds)" : "";
-        String tensString = tens > 0? tens + " (tens)" : "";
-        String onesString = ones > 0? ones + " (ones)" : "";
-
-        String result = sign + Math.abs(num) + " = ";
-        if (!hundredsString.isEmpty()) {
-            result += hundredsString;
+        if (isNegative) {
+            sb.append('-');
+        }
+        sb.append(Math.abs(num)).append(" = ");
+        if (hundreds > 0) {
+            sb.append(hundreds).append(" (hundreds)");
         }
-        if (!tensString.isEmpty()) {
-            if (!hundredsString.isEmpty()) {
-                result += " and ";
+        if (tens > 0) {
+            if (hundreds > 0) {
+                sb.append(separator);
             }
-            result += tensString;
+            sb.append(tens).append(" (tens)");
         }
-        if (!onesString.isEmpty()) {
-            if (!hundredsString.isEmpty() ||!tensString.isEmpty()) {
-                result += " and ";
+        if (ones > 0) {
+            if (hundreds > 0 || tens > 0) {
+                sb.append(separator);
             }
-            result += onesString;
+            sb.append(ones).append(" (ones)");
         }
+    }
 
-        return result;
+    private static void appendPartStep(StringBuilder sb, String label, int x, String operator, int y, int result) {
+        sb.append(label).append(x).append(operator).append(y).append(" = ").append(result).append('\n');
     }
+
+    private static void appendOnlyHave(StringBuilder sb, String place, int value) {
+        sb.append("From the ").append(place).append(" we only have: ").append(value).append('\n');
+    }
+
     //.......................................Fraction Simplification................................................................
 
     public static String simplifyFractions(int num1, int den1, int num2, int den2, int sumNum, int commonDen) {
         int gcd = findGCD(sumNum, commonDen);
         int simplifiedNum = sumNum / gcd;
         int simplifiedDen = commonDen / gcd;
-        return "1) Common denominator: " + den1 + " * " + den2 + " = " + commonDen
-                + "\n2) Convert each fraction: " + num1 + "/" + den1
-                + " = " + (num1 * den2) + "/" + commonDen + " and " + num2 + "/" + den2
-                + " = " + (num2 * den1) + "/" + commonDen
-                + "\n3) Add numerators: " + (num1 * den2) + " + " + (num2 * den1) + " = " + sumNum
-                + "\n4) Final fraction: " + sumNum + "/" + commonDen
-                + " which simplifies to " + simplifiedNum + "/" + simplifiedDen + ".";
+        StringBuilder sb = StepText.acquire();
+        sb.append("1) Common denominator: ").append(den1).append(" * ").append(den2).append(" = ").append(commonDen)
+                .append("\n2) Convert each fraction: ").append(num1).append('/').append(den1)
+                .append(" = ").append(num1 * den2).append('/').append(commonDen)
+                .append(" and ").append(num2).append('/').append(den2)
+                .append(" = ").append(num2 * den1).append('/').append(commonDen)
+                .append("\n3) Add numerators: ").append(num1 * den2).append(" + ").append(num2 * den1).append(" = ").append(sumNum)
+                .append("\n4) Final fraction: ").append(sumNum).append('/').append(commonDen)
+                .append(" which simplifies to ").append(simplifiedNum).append('/').append(simplifiedDen).append('.');
+        return StepText.finish(sb);
     }
 
     //.......................................Division Simplification................................................................
@@ -235,11 +294,14 @@ public class QuestionAlgorithmsFunctions {
             return "Division by zero is undefined.";
         }
 
-        String sign = (aIsNegative ^ bIsNegative) ? "-" : "";
-        String step1 = "Step 1: Divide the numbers: " + Math.abs(a) + " / " + Math.abs(b) + " = " + answer;
-        String step2 = "Step 2: Apply the sign: " + sign + answer;
-
-        return step1 + "\n" + step2;
+        StringBuilder sb = StepText.acquire();
+        sb.append("Step 1: Divide the numbers: ").append(Math.abs(a)).append(" / ").append(Math.abs(b)).append(" = ").append(answer)
+                .append("\nStep 2: Apply the sign: ");
+        if (aIsNegative ^ bIsNegative) {
+            sb.append('-');
+        }
+        sb.append(answer);
+        return StepText.finish(sb);
     }
 
     //.......................................Multiplication Simplification................................................................
@@ -249,53 +311,70 @@ public class QuestionAlgorithmsFunctions {
         int multiplier = 1;
         int tempB = b;
         int i = 1;
-        String output = "";
-        while(tempB > 0){
+        StringBuilder sb = StepText.acquire();
+        while (tempB > 0) {
             int currentDigit = tempB % 10;
             tempB /= 10;
-            output += i+") Multiply " + a + " by " + currentDigit + " (from " + b + ")";
+            sb.append(i).append(") Multiply ").append(a).append(" by ").append(currentDigit)
+                    .append(" (from ").append(b).append(')');
             int partialProduct = a * currentDigit;
-            output+="\n"+a+" * " +currentDigit+ " = "+partialProduct;
-            output+="\n"+partialProduct+" * " +multiplier + " = " + partialProduct * multiplier;
+            sb.append('\n').append(a).append(" * ").append(currentDigit).append(" = ").append(partialProduct);
+            sb.append('\n').append(partialProduct).append(" * ").append(multiplier).append(" = ").append(partialProduct * multiplier);
             partialProduct *= multiplier;
-            output+="\n"+result+" + " +partialProduct;
+            sb.append('\n').append(result).append(" + ").append(partialProduct);
             result += partialProduct;
-            output+="\nCurrent result: "+result+"\n";
+            sb.append("\nCurrent result: ").append(result).append("\n\n");
 
-            multiplier*=10;
+            multiplier *= 10;
             i++;
-            output+="\n";
         }
 
-        return output;
+        return StepText.finish(sb);
     }
 
     //.......................................Rectangle Simplification................................................................
 
     public static String simplifyRectangle(int length, int width, int area, int perimeter) {
-        return "1) Area = length * width = " + length + " * " + width + " = " + area
-                + "\n2) Perimeter = 2 * (length + width) = 2 * (" + length + " + " + width + ") = " + perimeter + ".";
+        StringBuilder sb = StepText.acquire();
+        sb.append("1) Area = length * width = ").append(length).append(" * ").append(width).append(" = ").append(area)
+                .append("\n2) Perimeter = 2 * (length + width) = 2 * (").append(length).append(" + ").append(width)
+                .append(") = ").append(perimeter).append('.');
+        return StepText.finish(sb);
     }
 
     //.......................................Circle Simplification................................................................
 
     public static String simplifyCircle(int radius, double area, double circumference) {
-        return "1) Area = pi * r^2 = 3.14 * " + radius + "^2 = " + String.format("%.2f", area)
-                + "\n2) Circumference = 2 * pi * r = 2 * 3.14 * " + radius + " = " + String.format("%.2f", circumference) + ".";
+        StringBuilder sb = StepText.acquire();
+        sb.append("1) Area = pi * r^2 = 3.14 * ").append(radius).append("^2 = ");
+        StepText.appendFixed2(sb, area);
+        sb.append("\n2) Circumference = 2 * pi * r = 2 * 3.14 * ").append(radius).append(" = ");
+        StepText.appendFixed2(sb, circumference).append('.');
+        return StepText.finish(sb);
     }
 
     //.......................................Triangle Simplification................................................................
 
     public static String simplifyTriangle(int base, int height, double area, double hypotenuse) {
-        return "1) Area = 1/2 * base * height = 1/2 * " + base + " * " + height + " = " + String.format("%.2f", area)
-                + "\n2) Hypotenuse = sqrt(base^2 + height^2) = sqrt(" + base + "^2 + " + height + "^2) = " + String.format("%.2f", hypotenuse) + ".";
+        StringBuilder sb = StepText.acquire();
+        sb.append("1) Area = 1/2 * base * height = 1/2 * ").append(base).append(" * ").append(height).append(" = ");
+        StepText.appendFixed2(sb, area);
+        sb.append("\n2) Hypotenuse = sqrt(base^2 + height^2) = sqrt(").append(base).append("^2 + ").append(height).append("^2) = ");
+        StepText.appendFixed2(sb, hypotenuse).append('.');
+        return StepText.finish(sb);
     }
 
     //.......................................Polygon Simplification................................................................
 
     public static String simplifyPolygon(int side, double apothem, double area) {
-        return "1) Apothem = side / (2 * tan(pi/5)) = " + side + " / (2 * tan(pi/5)) = " + String.format("%.2f", apothem)
-                + "\n2) Area = (5 * side * apothem) / 2 = (5 * " + side + " * " + String.format("%.2f", apothem) + ") / 2 = " + String.format("%.2f", area) + ".";
+        StringBuilder sb = StepText.acquire();
+        sb.append("1) Apothem = side / (2 * tan(pi/5)) = ").append(side).append(" / (2 * tan(pi/5)) = ");
+        StepText.appendFixed2(sb, apothem);
+        sb.append("\n2) Area = (5 * side * apothem) / 2 = (5 * ").append(side).append(" * ");
+        StepText.appendFixed2(sb, apothem);
+        sb.append(") / 2 = ");
+        StepText.appendFixed2(sb, area).append('.');
+        return StepText.finish(sb);
     }
 
     //.......................................Helper Methods................................................................
@@ -304,4 +383,4 @@ public class QuestionAlgorithmsFunctions {
         if (b == 0) return a;
         return findGCD(b, a % b);
     }
-}
\ No newline at end of file
+}
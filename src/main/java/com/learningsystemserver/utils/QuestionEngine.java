@@ -0,0 +1,180 @@
+package com.learningsystemserver.utils;
+
+import com.learningsystemserver.entities.DifficultyLevel;
+
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic question generator: the same (topic type, difficulty, seed) always yields the
+ * same question text, answer and solution steps. Each call owns its own SplittableRandom, so
+ * generation needs no shared RNG and can run on any number of threads. Text is rendered into the
+ * thread's reusable {@link StepText} buffer.
+ */
+public final class QuestionEngine {
+
+    private QuestionEngine() {}
+
+    public static QuestionContent generate(TopicType type, DifficultyLevel difficulty, long seed) {
+        SplittableRandom rng = new SplittableRandom(seed);
+        return switch (type) {
+            case ADDITION -> createAdditionQuestion(difficulty, rng);
+            case SUBTRACTION -> createSubtractionQuestion(difficulty, rng);
+            case MULTIPLICATION -> createMultiplicationQuestion(difficulty, rng);
+            case DIVISION -> createDivisionQuestion(difficulty, rng);
+            case FRACTIONS -> createFractionsQuestion(rng);
+            case RECTANGLE -> createRectangleQuestion(rng);
+            case CIRCLE -> createCircleQuestion(rng);
+            case TRIANGLE -> createTriangleQuestion(rng);
+            case POLYGON -> createPolygonQuestion(rng);
+        };
+    }
+
+    private static QuestionContent createAdditionQuestion(DifficultyLevel difficulty, SplittableRandom rng) {
+        int[] range = getRangeForDifficulty(difficulty);
+        int a = getRandomNumber(rng, range);
+        int b = getRandomNumber(rng, range);
+        int answer = a + b;
+        String questionText = equation(a, " + ", b);
+        String solutionSteps = QuestionAlgorithmsFunctions.simplifyAddition(a, b, answer);
+        return new QuestionContent(questionText, solutionSteps, String.valueOf(answer));
+    }
+
+    private static QuestionContent createSubtractionQuestion(DifficultyLevel difficulty, SplittableRandom rng) {
+        int[] range = getRangeForDifficulty(difficulty);
+        int a = getRandomNumber(rng, range);
+        int b = getRandomNumber(rng, range);
+        if (a < b) {
+            int temp = a;
+            a = b;
+            b = temp;
+        }
+        int answer = a - b;
+        String questionText = equation(a, " - ", b);
+        String solutionSteps = QuestionAlgorithmsFunctions.simplifySubtraction(a, b, answer);
+        return new QuestionContent(questionText, solutionSteps, String.valueOf(answer));
+    }
+
+    private static QuestionContent createMultiplicationQuestion(DifficultyLevel difficulty, SplittableRandom rng) {
+        int[] range = getRangeForDifficulty(difficulty);
+        int a = getRandomNumber(rng, range);
+        int b = getRandomNumber(rng, range);
+        int answer = a * b;
+        String questionText = equation(a, " × ", b);
+        String solutionSteps = QuestionAlgorithmsFunctions.simplifyMultiplication(a, b, answer);
+        return new QuestionContent(questionText, solutionSteps, String.valueOf(answer));
+    }
+
+    private static QuestionContent createDivisionQuestion(DifficultyLevel difficulty, SplittableRandom rng) {
+        int[] range = getRangeForDifficulty(difficulty);
+        int b;
+        int a;
+        do {
+            b = getRandomNumber(rng, range);
+        } while (b == 0);
+        int multiplier = getRandomNumber(rng, range);
+        a = b * multiplier;
+        int answer = a / b;
+        String questionText = equation(a, " ÷ ", b);
+        String solutionSteps = QuestionAlgorithmsFunctions.simplifyDivision(a, b, answer);
+        return new QuestionContent(questionText, solutionSteps, String.valueOf(answer));
+    }
+
+    private static QuestionContent createFractionsQuestion(SplittableRandom rng) {
+        int num1 = rng.nextInt(9) + 1;
+        int den1 = rng.nextInt(9) + 1;
+        int num2 = rng.nextInt(9) + 1;
+        int den2 = rng.nextInt(9) + 1;
+        int commonDen = den1 * den2;
+        int newNum1 = num1 * den2;
+        int newNum2 = num2 * den1;
+        int sumNum = newNum1 + newNum2;
+        String solutionSteps = QuestionAlgorithmsFunctions.simplifyFractions(num1, den1, num2, den2, sumNum, commonDen);
+        StringBuilder sb = StepText.acquire();
+        String questionText = StepText.finish(sb.append('(').append(num1).append('/').append(den1)
+                .append(") + (").append(num2).append('/').append(den2).append(") = ?"));
+        sb = StepText.acquire();
+        String correctAnswer = StepText.finish(sb.append(sumNum).append('/').append(commonDen));
+        return new QuestionContent(questionText, solutionSteps, correctAnswer);
+    }
+
+    private static QuestionContent createRectangleQuestion(SplittableRandom rng) {
+        int length = getRandomNumber(rng, new int[]{1, 20});
+        int width = getRandomNumber(rng, new int[]{1, 20});
+        int area = length * width;
+        int perimeter = 2 * (length + width);
+        String solutionSteps = QuestionAlgorithmsFunctions.simplifyRectangle(length, width, area, perimeter);
+        StringBuilder sb = StepText.acquire();
+        String questionText = StepText.finish(sb.append("Rectangle with length ").append(length)
+                .append(" and width ").append(width).append(". Find its area and perimeter."));
+        sb = StepText.acquire();
+        String correctAnswer = StepText.finish(sb.append("Area: ").append(area).append(", Perimeter: ").append(perimeter));
+        return new QuestionContent(questionText, solutionSteps, correctAnswer);
+    }
+
+    private static QuestionContent createCircleQuestion(SplittableRandom rng) {
+        int radius = getRandomNumber(rng, new int[]{1, 10});
+        double pi = 3.14;
+        double area = pi * radius * radius;
+        double circumference = 2 * pi * radius;
+        String solutionSteps = QuestionAlgorithmsFunctions.simplifyCircle(radius, area, circumference);
+        StringBuilder sb = StepText.acquire();
+        String questionText = StepText.finish(sb.append("Circle with radius ").append(radius)
+                .append(". Find its area and circumference."));
+        sb = StepText.acquire();
+        StepText.appendFixed2(sb.append("Area: "), area);
+        StepText.appendFixed2(sb.append(", Circumference: "), circumference);
+        String correctAnswer = StepText.finish(sb);
+        return new QuestionContent(questionText, solutionSteps, correctAnswer);
+    }
+
+    private static QuestionContent createTriangleQuestion(SplittableRandom rng) {
+        int base = getRandomNumber(rng, new int[]{1, 20});
+        int height = getRandomNumber(rng, new int[]{1, 20});
+        double area = 0.5 * base * height;
+        double hypotenuse = Math.sqrt(base * base + height * height);
+        String solutionSteps = QuestionAlgorithmsFunctions.simplifyTriangle(base, height, area, hypotenuse);
+        StringBuilder sb = StepText.acquire();
+        String questionText = StepText.finish(sb.append("Right triangle with base ").append(base)
+                .append(" and height ").append(height).append(". Find its area and hypotenuse."));
+        sb = StepText.acquire();
+        StepText.appendFixed2(sb.append("Area: "), area);
+        StepText.appendFixed2(sb.append(", Hypotenuse: "), hypotenuse);
+        String correctAnswer = StepText.finish(sb);
+        return new QuestionContent(questionText, solutionSteps, correctAnswer);
+    }
+
+    private static QuestionContent createPolygonQuestion(SplittableRandom rng) {
+        int side = getRandomNumber(rng, new int[]{1, 10});
+        double apothem = side / (2 * Math.tan(Math.PI / 5));
+        double area = (5 * side * apothem) / 2;
+        String solutionSteps = QuestionAlgorithmsFunctions.simplifyPolygon(side, apothem, area);
+        StringBuilder sb = StepText.acquire();
+        String questionText = StepText.finish(sb.append("Regular pentagon with side length ").append(side)
+                .append(". Find its approximate area."));
+        sb = StepText.acquire();
+        String correctAnswer = StepText.finish(StepText.appendFixed2(sb.append("Approximate Area: "), area));
+        return new QuestionContent(questionText, solutionSteps, correctAnswer);
+    }
+
+    // "a <op> b = ?"
+    private static String equation(int a, String operator, int b) {
+        StringBuilder sb = StepText.acquire();
+        return StepText.finish(sb.append(a).append(operator).append(b).append(" = ?"));
+    }
+
+    private static int[] getRangeForDifficulty(DifficultyLevel difficulty) {
+        return switch (difficulty) {
+            case BASIC -> new int[]{1, 10};
+            case EASY -> new int[]{1, 30};
+            case MEDIUM -> new int[]{1, 100};
+            case ADVANCED -> new int[]{1, 1000};
+            case EXPERT -> new int[]{1, 9999};
+        };
+    }
+
+    private static int getRandomNumber(SplittableRandom rng, int[] range) {
+        return rng.nextInt(range[1] - range[0] + 1) + range[0];
+    }
+
+    public record QuestionContent(String questionText, String solutionSteps, String correctAnswer) {}
+}
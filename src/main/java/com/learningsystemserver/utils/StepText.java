@@ -0,0 +1,65 @@
+package com.learningsystemserver.utils;
+
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Scratch buffer shared by the question renderers (one StringBuilder per thread, reused for every
+ * question) plus an allocation-free replacement for {@code String.format("%.2f", value)}.
+ * Rendering never nests: {@link #acquire()}, append, {@link #finish}.
+ */
+final class StepText {
+
+    private static final int INITIAL_CAPACITY = 512;
+    // Don't keep an unusually large buffer pinned to a pooled thread
+    private static final int MAX_RETAINED_CAPACITY = 16 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUFFER =
+            ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_CAPACITY));
+
+    // The fast path writes '.' and ASCII digits, which is what "%.2f" produces in en/he locales
+    private static final boolean PLAIN_DECIMALS;
+
+    static {
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT));
+        PLAIN_DECIMALS = symbols.getDecimalSeparator() == '.' && symbols.getZeroDigit() == '0';
+    }
+
+    private StepText() {}
+
+    static StringBuilder acquire() {
+        StringBuilder sb = BUFFER.get();
+        sb.setLength(0);
+        return sb;
+    }
+
+    static String finish(StringBuilder sb) {
+        String text = sb.toString();
+        if (sb.capacity() > MAX_RETAINED_CAPACITY) {
+            BUFFER.set(new StringBuilder(INITIAL_CAPACITY));
+        }
+        return text;
+    }
+
+    /** Appends {@code value} exactly as {@code String.format("%.2f", value)} would. */
+    static StringBuilder appendFixed2(StringBuilder sb, double value) {
+        // Negative, huge and non-finite values are rare here: leave them to Formatter
+        if (!PLAIN_DECIMALS || Math.copySign(1.0, value) < 0 || !(value < 1e6)) {
+            return sb.append(String.format("%.2f", value));
+        }
+        double scaled = value * 100;
+        double fraction = scaled - Math.floor(scaled);
+        if (Math.abs(fraction - 0.5) < 1e-6) {
+            // Formatter rounds the shortest decimal representation HALF_UP; near a tie the binary
+            // value may sit on the other side of it, so let Formatter decide
+            return sb.append(String.format("%.2f", value));
+        }
+        long hundredths = (long) (scaled + 0.5);
+        int cents = (int) (hundredths % 100);
+        sb.append(hundredths / 100).append('.');
+        if (cents < 10) {
+            sb.append('0');
+        }
+        return sb.append(cents);
+    }
+}
@@ -0,0 +1,31 @@
+package com.learningsystemserver.utils;
+
+/**
+ * Question family a topic generates, derived from the topic name.
+ */
+public enum TopicType {
+    ADDITION,
+    SUBTRACTION,
+    MULTIPLICATION,
+    DIVISION,
+    FRACTIONS,
+    RECTANGLE,
+    CIRCLE,
+    TRIANGLE,
+    POLYGON;
+
+    public static TopicType fromTopicName(String name) {
+        if (name == null) return ADDITION;
+        String nameLower = name.toLowerCase();
+        if (nameLower.contains("addition")) return ADDITION;
+        if (nameLower.contains("subtraction")) return SUBTRACTION;
+        if (nameLower.contains("multiplication")) return MULTIPLICATION;
+        if (nameLower.contains("division")) return DIVISION;
+        if (nameLower.contains("fractions")) return FRACTIONS;
+        if (nameLower.contains("rectangle")) return RECTANGLE;
+        if (nameLower.contains("circle")) return CIRCLE;
+        if (nameLower.contains("triangle")) return TRIANGLE;
+        if (nameLower.contains("polygon")) return POLYGON;
+        return ADDITION;
+    }
+}
@@ -0,0 +1,81 @@
+package com.learningsystemserver.services;
+
+import com.learningsystemserver.entities.AiExplanation;
+import com.learningsystemserver.repositories.AiExplanationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ExplanationCacheTest {
+
+    @Test
+    void normalizesWhitespaceCaseAndCompatibilityForms() {
+        assertThat(ExplanationCache.normalize("  7+5  =\t?\n")).isEqualTo("7+5 = ?");
+        assertThat(ExplanationCache.normalize("Solve X")).isEqualTo("solve x");
+        // Full-width digits and ligatures fold to their plain forms under NFKC
+        assertThat(ExplanationCache.normalize("７＋５ = ?")).isEqualTo("7+5 = ?");
+        assertThat(ExplanationCache.normalize("ﬁnd")).isEqualTo("find");
+        assertThat(ExplanationCache.normalize(null)).isEmpty();
+    }
+
+    @Test
+    void equivalentQuestionsShareAKey() {
+        ExplanationCache cache = cache(mock(AiExplanationRepository.class), false);
+
+        assertThat(cache.keyFor("m", "v1", "en", "7 + 5 = ?").hash())
+                .isEqualTo(cache.keyFor("m", "v1", "en", " 7 +  5 = ? ").hash());
+    }
+
+    @Test
+    void keyChangesWithModelPromptVersionAndLanguage() {
+        ExplanationCache cache = cache(mock(AiExplanationRepository.class), false);
+        String base = cache.keyFor("m", "v1", "en", "7 + 5 = ?").hash();
+
+        assertThat(cache.keyFor("other", "v1", "en", "7 + 5 = ?").hash()).isNotEqualTo(base);
+        assertThat(cache.keyFor("m", "v2", "en", "7 + 5 = ?").hash()).isNotEqualTo(base);
+        assertThat(cache.keyFor("m", "v1", "he", "7 + 5 = ?").hash()).isNotEqualTo(base);
+    }
+
+    @Test
+    void persistentLookupIgnoresRowsOlderThanTheTtl() {
+        AiExplanationRepository repository = mock(AiExplanationRepository.class);
+        when(repository.findAnswerByCacheKey(any(), any())).thenReturn(Optional.empty());
+        ExplanationCache cache = cache(repository, true);
+        ExplanationCache.Key key = cache.keyFor("m", "v1", "en", "7 + 5 = ?");
+
+        LocalDateTime before = LocalDateTime.now().minusHours(24);
+        assertThat(cache.get(key)).isEmpty();
+        LocalDateTime after = LocalDateTime.now().minusHours(24);
+
+        verify(repository).findAnswerByCacheKey(eq(key.hash()),
+                argThat(cutoff -> !cutoff.isBefore(before) && !cutoff.isAfter(after)));
+    }
+
+    @Test
+    void storingOverAnExpiredRowReplacesIt() {
+        AiExplanationRepository repository = mock(AiExplanationRepository.class);
+        when(repository.save(any(AiExplanation.class))).thenThrow(new DataIntegrityViolationException("duplicate"));
+        ExplanationCache cache = cache(repository, true);
+        ExplanationCache.Key key = cache.keyFor("m", "v1", "en", "7 + 5 = ?");
+
+        cache.put(key, "12");
+
+        verify(repository).replaceExpired(eq(key.hash()), eq("12"), any(), any());
+        assertThat(cache.get(key)).contains("12");
+    }
+
+    private static ExplanationCache cache(AiExplanationRepository repository, boolean persistent) {
+        return new ExplanationCache(repository, new SimpleMeterRegistry(), true, persistent, 100, 24);
+    }
+}
@@ -0,0 +1,129 @@
+package com.learningsystemserver.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OllamaAdmissionQueueTest {
+
+    private static final IntConsumer IGNORE_POSITION = p -> {};
+
+    private OllamaAdmissionQueue queue;
+
+    @AfterEach
+    void tearDown() {
+        if (queue != null) {
+            queue.shutdown();
+        }
+    }
+
+    @Test
+    void servesWaitingUsersRoundRobin() throws Exception {
+        queue = new OllamaAdmissionQueue(new SimpleMeterRegistry(), 1, 10, 3, 15);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> ran = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(4);
+
+        queue.submit("a", IGNORE_POSITION, () -> await(release));
+        queue.submit("a", IGNORE_POSITION, record("a1", ran, done));
+        queue.submit("a", IGNORE_POSITION, record("a2", ran, done));
+        queue.submit("b", IGNORE_POSITION, record("b1", ran, done));
+        queue.submit("c", IGNORE_POSITION, record("c1", ran, done));
+        release.countDown();
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(ran).containsExactly("a1", "b1", "c1", "a2");
+    }
+
+    @Test
+    void rejectsBeyondPerUserShare() {
+        queue = new OllamaAdmissionQueue(new SimpleMeterRegistry(), 1, 10, 2, 15);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            queue.submit("a", IGNORE_POSITION, () -> await(release));
+            queue.submit("a", IGNORE_POSITION, () -> {});
+            queue.submit("a", IGNORE_POSITION, () -> {});
+
+            assertThatThrownBy(() -> queue.submit("a", IGNORE_POSITION, () -> {}))
+                    .isInstanceOf(RejectedExecutionException.class);
+            // Other users still have room
+            queue.submit("b", IGNORE_POSITION, () -> {});
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() {
+        queue = new OllamaAdmissionQueue(new SimpleMeterRegistry(), 1, 2, 3, 15);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            queue.submit("a", IGNORE_POSITION, () -> await(release));
+            queue.submit("b", IGNORE_POSITION, () -> {});
+            queue.submit("c", IGNORE_POSITION, () -> {});
+
+            assertThatThrownBy(() -> queue.submit("d", IGNORE_POSITION, () -> {}))
+                    .isInstanceOf(RejectedExecutionException.class);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void admitsWhileASlotIsFree() throws Exception {
+        queue = new OllamaAdmissionQueue(new SimpleMeterRegistry(), 2, 0, 0, 15);
+        CountDownLatch ran = new CountDownLatch(1);
+
+        queue.submit("a", IGNORE_POSITION, ran::countDown);
+
+        assertThat(ran.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void cancelledRequestNeverRunsAndOthersMoveUp() throws Exception {
+        queue = new OllamaAdmissionQueue(new SimpleMeterRegistry(), 1, 10, 3, 15);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> ran = new CopyOnWriteArrayList<>();
+        List<Integer> cPositions = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        queue.submit("a", IGNORE_POSITION, () -> await(release));
+        OllamaAdmissionQueue.Ticket b = queue.submit("b", IGNORE_POSITION, record("b1", ran, null));
+        queue.submit("c", cPositions::add, record("c1", ran, done));
+        assertThat(cPositions).containsExactly(2);
+
+        b.cancel();
+        assertThat(cPositions).containsExactly(2, 1);
+
+        release.countDown();
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(ran).containsExactly("c1");
+    }
+
+    private static Runnable record(String name, List<String> ran, CountDownLatch done) {
+        return () -> {
+            ran.add(name);
+            if (done != null) {
+                done.countDown();
+            }
+        };
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.learningsystemserver.services;
+
+import com.learningsystemserver.entities.DifficultyLevel;
+import com.learningsystemserver.entities.RedeemedQuestionToken;
+import com.learningsystemserver.exceptions.InvalidInputException;
+import com.learningsystemserver.repositories.RedeemedQuestionTokenRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class QuestionTokenServiceTest {
+
+    private static final String SECRET = "test-secret-test-secret-test-secret";
+
+    @Test
+    void verifiesItsOwnToken() throws Exception {
+        QuestionTokenService tokens = service(24);
+        String token = tokens.issue(7L, DifficultyLevel.MEDIUM, 42L);
+
+        QuestionTokenService.QuestionClaims claims = tokens.verify(token);
+
+        assertThat(claims.topicId()).isEqualTo(7L);
+        assertThat(claims.difficulty()).isEqualTo(DifficultyLevel.MEDIUM);
+        assertThat(claims.seed()).isEqualTo(42L);
+    }
+
+    @Test
+    void rejectsTamperedPayload() {
+        QuestionTokenService tokens = service(24);
+        String token = tokens.issue(7L, DifficultyLevel.MEDIUM, 42L);
+        String payload = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))));
+        String forged = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.replace("|MEDIUM|", "|EXPERT|").getBytes())
+                + token.substring(token.indexOf('.'));
+
+        assertThatThrownBy(() -> tokens.verify(forged))
+                .isInstanceOf(InvalidInputException.class)
+                .hasMessageContaining("signature");
+    }
+
+    @Test
+    void rejectsTokenSignedWithAnotherKey() {
+        QuestionTokenService other = new QuestionTokenService(mock(RedeemedQuestionTokenRepository.class),
+                true, 24, "some-other-secret-some-other-secret");
+        String token = other.issue(7L, DifficultyLevel.MEDIUM, 42L);
+
+        assertThatThrownBy(() -> service(24).verify(token))
+                .isInstanceOf(InvalidInputException.class);
+    }
+
+    @Test
+    void rejectsMalformedToken() {
+        QuestionTokenService tokens = service(24);
+
+        assertThatThrownBy(() -> tokens.verify("no-dot-here")).isInstanceOf(InvalidInputException.class);
+        assertThatThrownBy(() -> tokens.verify("%%%.%%%")).isInstanceOf(InvalidInputException.class);
+        assertThatThrownBy(() -> tokens.verify(null)).isInstanceOf(InvalidInputException.class);
+    }
+
+    @Test
+    void rejectsExpiredToken() {
+        QuestionTokenService tokens = service(-1);
+        String token = tokens.issue(7L, DifficultyLevel.BASIC, 1L);
+
+        assertThatThrownBy(() -> tokens.verify(token))
+                .isInstanceOf(InvalidInputException.class)
+                .hasMessageContaining("expired");
+    }
+
+    @Test
+    void redeemsEachTokenOnce() throws Exception {
+        RedeemedQuestionTokenRepository repository = mock(RedeemedQuestionTokenRepository.class);
+        // Stands in for the unique constraint on token_hash
+        Set<String> hashes = new HashSet<>();
+        when(repository.saveAndFlush(any(RedeemedQuestionToken.class))).thenAnswer(inv -> {
+            RedeemedQuestionToken row = inv.getArgument(0);
+            if (!hashes.add(row.getTokenHash())) {
+                throw new DataIntegrityViolationException("duplicate");
+            }
+            return row;
+        });
+        QuestionTokenService tokens = new QuestionTokenService(repository, true, 24, SECRET);
+        String token = tokens.issue(7L, DifficultyLevel.EASY, 5L);
+
+        assertThat(tokens.redeem(token).seed()).isEqualTo(5L);
+        assertThatThrownBy(() -> tokens.redeem(token))
+                .isInstanceOf(InvalidInputException.class)
+                .hasMessageContaining("already been used");
+        // A different question is unaffected
+        assertThat(tokens.redeem(tokens.issue(7L, DifficultyLevel.EASY, 6L)).seed()).isEqualTo(6L);
+    }
+
+    private static QuestionTokenService service(long ttlHours) {
+        return new QuestionTokenService(mock(RedeemedQuestionTokenRepository.class), true, ttlHours, SECRET);
+    }
+}
@@ -0,0 +1,112 @@
+package com.learningsystemserver.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SsePushExecutorTest {
+
+    private SsePushExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void sendsEventsInOrderThenCompletes() throws Exception {
+        executor = new SsePushExecutor(new SimpleMeterRegistry(), 2, 10, 10);
+        RecordingEmitter emitter = new RecordingEmitter(null);
+        executor.register(emitter, e -> {});
+
+        for (int i = 1; i <= 5; i++) {
+            executor.push(emitter, SseEmitter.event().id(String.valueOf(i)).data(i));
+        }
+        executor.complete(emitter);
+
+        assertThat(emitter.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(emitter.sent).hasSize(5);
+    }
+
+    @Test
+    void dropsAnEmitterWhoseLaneOverflows() throws Exception {
+        executor = new SsePushExecutor(new SimpleMeterRegistry(), 1, 10, 3);
+        CountDownLatch unblock = new CountDownLatch(1);
+        RecordingEmitter emitter = new RecordingEmitter(unblock);
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        executor.register(emitter, failures::add);
+
+        // The first event occupies the writer; three more fill the lane
+        executor.push(emitter, SseEmitter.event().data(0));
+        assertThat(emitter.writing.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 1; i <= 3; i++) {
+            executor.push(emitter, SseEmitter.event().data(i));
+        }
+        assertThat(failures).isEmpty();
+
+        executor.push(emitter, SseEmitter.event().data(4));
+        unblock.countDown();
+
+        assertThat(failures).hasSize(1);
+        assertThat(executor.millisSinceLastWrite(emitter)).isEqualTo(-1);
+    }
+
+    @Test
+    void snapshotsDoNotCountTowardsTheCap() throws Exception {
+        executor = new SsePushExecutor(new SimpleMeterRegistry(), 1, 10, 2);
+        CountDownLatch unblock = new CountDownLatch(1);
+        RecordingEmitter emitter = new RecordingEmitter(unblock);
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        executor.register(emitter, failures::add);
+
+        executor.push(emitter, SseEmitter.event().data(0));
+        assertThat(emitter.writing.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 0; i < 20; i++) {
+            executor.pushSnapshot(emitter, "dashboard", i);
+        }
+        unblock.countDown();
+
+        assertThat(failures).isEmpty();
+    }
+
+    /** Records sends; the first send blocks until {@code unblock} opens (when given). */
+    private static final class RecordingEmitter extends SseEmitter {
+        final List<Object> sent = new CopyOnWriteArrayList<>();
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch completed = new CountDownLatch(1);
+        private final CountDownLatch unblock;
+
+        RecordingEmitter(CountDownLatch unblock) {
+            this.unblock = unblock;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            writing.countDown();
+            if (unblock != null) {
+                try {
+                    unblock.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            sent.add(builder);
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.learningsystemserver.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChunkCoalescerTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    void sendsFirstTokenRightAway() {
+        ChunkCoalescer coalescer = new ChunkCoalescer(64, 80);
+
+        assertThat(coalescer.offer("Hello", 0)).isEqualTo("Hello");
+        assertThat(coalescer.deadline()).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void flushesWhenSizeIsReached() {
+        ChunkCoalescer coalescer = new ChunkCoalescer(8, 80);
+        coalescer.offer("a", 0);
+
+        assertThat(coalescer.offer("bcd", 1 * MS)).isNull();
+        assertThat(coalescer.offer("efgh", 2 * MS)).isNull();
+        assertThat(coalescer.offer("i", 3 * MS)).isEqualTo("bcdefghi");
+    }
+
+    @Test
+    void flushesWhenNextTokenArrivesAfterTheDelay() {
+        ChunkCoalescer coalescer = new ChunkCoalescer(64, 80);
+        coalescer.offer("a", 0);
+
+        assertThat(coalescer.offer("b", 10 * MS)).isNull();
+        assertThat(coalescer.offer("c", 80 * MS)).isEqualTo("bc");
+    }
+
+    @Test
+    void pollReleasesBufferedTextAtItsDeadline() {
+        ChunkCoalescer coalescer = new ChunkCoalescer(64, 80);
+        coalescer.offer("a", 0);
+        coalescer.offer("b", 10 * MS);
+
+        assertThat(coalescer.deadline()).isEqualTo(80 * MS);
+        assertThat(coalescer.poll(79 * MS)).isNull();
+        assertThat(coalescer.poll(80 * MS)).isEqualTo("b");
+        assertThat(coalescer.poll(500 * MS)).isNull();
+        assertThat(coalescer.deadline()).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void deadlineFollowsTheLastFrame() {
+        ChunkCoalescer coalescer = new ChunkCoalescer(4, 80);
+        coalescer.offer("a", 0);
+        assertThat(coalescer.offer("bcde", 30 * MS)).isEqualTo("bcde");
+
+        coalescer.offer("f", 40 * MS);
+
+        assertThat(coalescer.deadline()).isEqualTo(110 * MS);
+    }
+
+    @Test
+    void drainReturnsRemainderOnce() {
+        ChunkCoalescer coalescer = new ChunkCoalescer(64, 80);
+        coalescer.offer("a", 0);
+        coalescer.offer("b", 1 * MS);
+        coalescer.offer("c", 2 * MS);
+
+        assertThat(coalescer.drain()).isEqualTo("bc");
+        assertThat(coalescer.drain()).isNull();
+    }
+
+    @Test
+    void zeroDelaySendsEveryToken() {
+        ChunkCoalescer coalescer = new ChunkCoalescer(64, 0);
+
+        assertThat(coalescer.offer("a", 0)).isEqualTo("a");
+        assertThat(coalescer.offer("b", 0)).isEqualTo("b");
+        assertThat(coalescer.drain()).isNull();
+    }
+}